@@ -0,0 +1,110 @@
+// k6 load test for login, incident reporting and the incident feeds.
+//
+//   k6 run -e BASE_URL=http://localhost:8080 -e PASSWORD=... load-tests/incident-feeds.js
+//
+// Each VU logs in as loadtest<VU>@safewatch.test, so the per-user budget in UserRateLimiter
+// applies to one VU only. Create and enable at least VUS accounts first (see run.sh).
+// Every VU also sends its own X-Forwarded-For, so the per-IP login and report policies see one client per VU.
+// run.sh runs the same test against platform threads and virtual threads.
+
+import http from 'k6/http';
+import { check, fail, sleep } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const PASSWORD = __ENV.PASSWORD || 'LoadTest!2345';
+const VUS = Number(__ENV.VUS || 50);
+const DURATION = __ENV.DURATION || '5m';
+
+const CATEGORIES = ['FIRE', 'TRAFFIC', 'DEMONSTRATIONS', 'RALLIES', 'ACCIDENT'];
+const SEVERITIES = ['LOW', 'MEDIUM', 'HIGH', 'EXTREME'];
+
+export const options = {
+    scenarios: {
+        feeds: {
+            executor: 'ramping-vus',
+            startVUs: 0,
+            stages: [
+                { duration: '30s', target: VUS },
+                { duration: DURATION, target: VUS },
+                { duration: '30s', target: 0 },
+            ],
+            gracefulRampDown: '10s',
+        },
+    },
+    thresholds: {
+        http_req_failed: ['rate<0.01'],
+        'http_req_duration{endpoint:login}': ['p(95)<800'],
+        'http_req_duration{endpoint:report}': ['p(95)<500'],
+        'http_req_duration{endpoint:page}': ['p(95)<300'],
+        'http_req_duration{endpoint:scroll}': ['p(95)<300'],
+    },
+};
+
+// per-VU state, k6 gives every VU its own copy of module globals
+let accessToken = null;
+let cursor = null;
+
+function clientIp() {
+    return `10.77.${Math.floor(__VU / 250)}.${__VU % 250 + 1}`;
+}
+
+function login() {
+    const res = http.post(`${BASE_URL}/api/login`,
+        JSON.stringify({ email: `loadtest${__VU}@safewatch.test`, password: PASSWORD }),
+        { headers: { 'Content-Type': 'application/json', 'X-Forwarded-For': clientIp() }, tags: { endpoint: 'login' } });
+    if (!check(res, { 'login 200': (r) => r.status === 200 })) {
+        fail(`login failed for loadtest${__VU}: ${res.status}`);
+    }
+    accessToken = res.json('accessToken');
+}
+
+function authHeaders(extra) {
+    return Object.assign({ Authorization: `Bearer ${accessToken}`, 'X-Forwarded-For': clientIp() }, extra);
+}
+
+function pick(values) {
+    return values[Math.floor(Math.random() * values.length)];
+}
+
+function report() {
+    const body = {
+        title: `load test ${__VU}-${__ITER}`,
+        description: 'generated by load-tests/incident-feeds.js',
+        location: 'Nairobi',
+        severity: pick(SEVERITIES),
+        incidentCategory: pick(CATEGORIES),
+    };
+    const res = http.post(`${BASE_URL}/api/incident/report`, JSON.stringify(body),
+        { headers: authHeaders({ 'Content-Type': 'application/json' }), tags: { endpoint: 'report' } });
+    check(res, { 'report 200': (r) => r.status === 200 });
+}
+
+function page() {
+    const res = http.get(`${BASE_URL}/api/incident/get/category?category=${pick(CATEGORIES)}&page=0&size=20`,
+        { headers: authHeaders(), tags: { endpoint: 'page' } });
+    check(res, { 'page 200': (r) => r.status === 200 });
+}
+
+// follows nextCursor across iterations and starts over at the end of the feed
+function scroll() {
+    const query = cursor ? `?size=20&cursor=${encodeURIComponent(cursor)}` : '?size=20';
+    const res = http.get(`${BASE_URL}/api/incident/scroll/reports${query}`,
+        { headers: authHeaders(), tags: { endpoint: 'scroll' } });
+    if (check(res, { 'scroll 200': (r) => r.status === 200 })) {
+        cursor = res.json('nextCursor');
+    } else {
+        cursor = null;
+    }
+}
+
+export default function () {
+    // access tokens are short lived, logging in again every 100 iterations keeps login in the mix without tripping its limit
+    if (accessToken === null || __ITER % 100 === 0) login();
+
+    const roll = Math.random();
+    if (roll < 0.1) report();
+    else if (roll < 0.4) page();
+    else scroll();
+
+    sleep(0.5 + Math.random());
+}
@@ -0,0 +1,76 @@
+package com.safewatch.benchmarks;
+
+import com.safewatch.services.JwtService;
+import com.safewatch.services.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.core.userdetails.User;
+
+import javax.crypto.SecretKey;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+//per-request cost of checking an access token in JwtFilter, before and after the parser was built once
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtVerificationBenchmark {
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[64]);
+
+    private JwtService uncached;
+    private JwtService cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        uncached = new JwtService(SECRET, 900_000, new VerifiedTokenCache(false, 10_000, new SimpleMeterRegistry()));
+        cached = new JwtService(SECRET, 900_000, new VerifiedTokenCache(true, 10_000, new SimpleMeterRegistry()));
+        token = uncached.generateToken(User.withUsername("reporter@safewatch.test").password("x").roles("USER").build());
+    }
+
+    //the old filter path: username, authorities and expiry each parsed the token with a freshly derived key
+    @Benchmark
+    public void legacyThreeParses(Blackhole blackhole) {
+        blackhole.consume(legacyParse(token).getSubject());
+        blackhole.consume(legacyParse(token).get("authorities"));
+        blackhole.consume(legacyParse(token).getExpiration());
+    }
+
+    @Benchmark
+    public void singleParse(Blackhole blackhole) {
+        Claims claims = uncached.extractAllClaims(token);
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(claims.get("authorities"));
+        blackhole.consume(claims.getExpiration());
+    }
+
+    //a repeat token, which is what an active client sends between refreshes
+    @Benchmark
+    public void verifiedCacheHit(Blackhole blackhole) {
+        Claims claims = cached.extractAllClaims(token);
+        blackhole.consume(claims.getSubject());
+        blackhole.consume(claims.get("authorities"));
+        blackhole.consume(claims.getExpiration());
+    }
+
+    private static Claims legacyParse(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -0,0 +1,67 @@
+package com.safewatch.benchmarks;
+
+import com.safewatch.models.RoleType;
+import com.safewatch.models.Status;
+import com.safewatch.util.reportRelated.StatusTransition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+//every (from, to) pair per invocation, so legal and illegal edges are weighted the same
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatusTransitionBenchmark {
+
+    //the table StatusTransition used before the bitmask
+    private static final Map<Status, Set<Status>> LEGACY = Map.of(
+            Status.PENDING, Set.of(Status.VERIFIED, Status.REJECTED, Status.FLAGGED),
+            Status.VERIFIED, Set.of(Status.PUBLISHED, Status.FLAGGED),
+            Status.FLAGGED, Set.of(Status.VERIFIED, Status.REJECTED),
+            Status.PUBLISHED, Set.of(),
+            Status.REJECTED, Set.of()
+    );
+
+    private final Status[] statuses = Status.values();
+
+    @Benchmark
+    public void legacyMapLookup(Blackhole blackhole) {
+        for (Status from : statuses) {
+            for (Status to : statuses) {
+                blackhole.consume(LEGACY.getOrDefault(from, Set.of()).contains(to));
+            }
+        }
+    }
+
+    @Benchmark
+    public void bitmask(Blackhole blackhole) {
+        for (Status from : statuses) {
+            for (Status to : statuses) {
+                blackhole.consume(StatusTransition.isAllowed(from, to));
+            }
+        }
+    }
+
+    @Benchmark
+    public void bitmaskWithRole(Blackhole blackhole) {
+        for (Status from : statuses) {
+            for (Status to : statuses) {
+                blackhole.consume(StatusTransition.isAllowed(from, to, RoleType.MODERATOR));
+            }
+        }
+    }
+}
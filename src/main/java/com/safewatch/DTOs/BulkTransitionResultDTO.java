@@ -0,0 +1,12 @@
+package com.safewatch.DTOs;
+
+import com.safewatch.models.Status;
+import com.safewatch.util.reportRelated.TransitionOutcome;
+
+//status and version are the report's state after the call, null when it was not found
+public record BulkTransitionResultDTO(Long incidentId,
+                                      TransitionOutcome outcome,
+                                      Status status,
+                                      Long version,
+                                      String message) {
+}
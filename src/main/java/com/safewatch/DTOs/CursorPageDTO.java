@@ -0,0 +1,7 @@
+package com.safewatch.DTOs;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(List<T> content,
+                               String nextCursor) {
+}
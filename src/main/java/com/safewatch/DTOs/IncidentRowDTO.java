@@ -0,0 +1,23 @@
+package com.safewatch.DTOs;
+
+import com.safewatch.models.IncidentCategory;
+import com.safewatch.models.Severity;
+import com.safewatch.models.Status;
+
+import java.time.LocalDateTime;
+
+//IncidentDTO columns plus the keyset position, filled by constructor-expression queries
+public record IncidentRowDTO(Long incidentId,
+                             LocalDateTime reportedAt,
+                             String title,
+                             String description,
+                             String location,
+                             Severity severity,
+                             IncidentCategory incidentCategory,
+                             Status status,
+                             long version) {
+
+    public IncidentDTO toDTO() {
+        return new IncidentDTO(title, description, location, severity, incidentCategory, status, version);
+    }
+}
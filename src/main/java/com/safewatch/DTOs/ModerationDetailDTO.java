@@ -0,0 +1,37 @@
+package com.safewatch.DTOs;
+
+import com.safewatch.models.Incident;
+import com.safewatch.models.IncidentCategory;
+import com.safewatch.models.RoleType;
+import com.safewatch.models.Severity;
+import com.safewatch.models.Status;
+import com.safewatch.models.User;
+
+import java.time.LocalDateTime;
+
+//moderation detail view, reads the reviewer and its role that Incident.withReviewer fetches in the same select
+public record ModerationDetailDTO(Long incidentId,
+                                  String title,
+                                  String description,
+                                  String location,
+                                  Severity severity,
+                                  IncidentCategory incidentCategory,
+                                  Status status,
+                                  long version,
+                                  LocalDateTime reportedAt,
+                                  LocalDateTime reviewedAt,
+                                  String reviewComment,
+                                  Long reviewerId,
+                                  String reviewerEmail,
+                                  RoleType reviewerRole) {
+
+    public static ModerationDetailDTO from(Incident i) {
+        User reviewer = i.getReviewedBy();
+        return new ModerationDetailDTO(i.getIncidentId(), i.getTitle(), i.getDescription(), i.getLocation(),
+                i.getSeverity(), i.getIncidentCategory(), i.getStatus(), i.getVersion(), i.getReportedAt(),
+                i.getReviewedAt(), i.getReviewComment(),
+                reviewer == null ? null : reviewer.getUserID(),
+                reviewer == null ? null : reviewer.getEmail(),
+                reviewer == null ? null : reviewer.getUserRole().getRoleName());
+    }
+}
@@ -0,0 +1,98 @@
+package com.safewatch.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//every incident index lives here rather than on the entity, Hibernate's schema tooling would build them with a blocking create index
+//built concurrently so writes to incident keep flowing while a large table is indexed
+@Component
+@RequiredArgsConstructor
+public class IncidentIndexInitializer {
+    private static final long LOCK_KEY = 0x5AFE_1DE7L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Logger logger = LoggerFactory.getLogger(IncidentIndexInitializer.class);
+
+    //keyed by index name, feed listings and keyset scrolls sort on (reported_at, incident_id)
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("idx_incident_reported", "create index concurrently if not exists idx_incident_reported on incident (reported_at, incident_id)");
+        INDEXES.put("idx_incident_category_reported", "create index concurrently if not exists idx_incident_category_reported on incident (incident_category, reported_at, incident_id)");
+        INDEXES.put("idx_incident_status_reported", "create index concurrently if not exists idx_incident_status_reported on incident (status, reported_at, incident_id)");
+        INDEXES.put("idx_incident_severity_reported", "create index concurrently if not exists idx_incident_severity_reported on incident (severity, reported_at, incident_id)");
+        //foreign keys, postgres does not index the referencing side on its own
+        INDEXES.put("idx_incident_reported_by", "create index concurrently if not exists idx_incident_reported_by on incident (current_user_fk)");
+        INDEXES.put("idx_incident_reviewed_by", "create index concurrently if not exists idx_incident_reviewed_by on incident (reviewed_by)");
+        INDEXES.put("idx_incident_claimed_by", "create index concurrently if not exists idx_incident_claimed_by on incident (claimed_by)");
+        //matches the severity ordering of IncidentRepository.lockClaimable
+        INDEXES.put("idx_incident_claim_queue", """
+                create index concurrently if not exists idx_incident_claim_queue
+                    on incident ((case severity when 'EXTREME' then 0 when 'HIGH' then 1 when 'MEDIUM' then 2 else 3 end),
+                                 reported_at, incident_id)
+                 where status in ('PENDING', 'FLAGGED')
+                """);
+    }
+
+    //had the same columns as idx_incident_status_reported, which already serves status listings
+    private static final String DROP_MODERATION_QUEUE_INDEX = "drop index concurrently if exists idx_incident_moderation_queue";
+
+    //a failed concurrent build leaves an invalid index behind that "if not exists" would keep forever
+    private static final String INVALID_INDEX = """
+            select exists (select 1
+                             from pg_index i
+                             join pg_class c on c.oid = i.indexrelid
+                            where c.relname = ?
+                              and not i.indisvalid)
+            """;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        try {
+            jdbcTemplate.execute((ConnectionCallback<Void>) this::buildWithLock);
+        } catch (Exception e) {
+            logger.warn("Unable to create incident indexes", e);
+        }
+    }
+
+    //one node builds at a time, so nobody drops an index another node is still building
+    private Void buildWithLock(Connection connection) throws SQLException {
+        JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        Boolean locked = session.queryForObject("select pg_try_advisory_lock(?)", Boolean.class, LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            logger.debug("Index build skipped, another node holds the lock");
+            return null;
+        }
+
+        //concurrent builds cannot run inside a transaction block
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                if (Boolean.TRUE.equals(session.queryForObject(INVALID_INDEX, Boolean.class, index.getKey()))) {
+                    logger.warn("Dropping invalid index {} left by an interrupted build", index.getKey());
+                    session.execute("drop index concurrently if exists " + index.getKey());
+                }
+                session.execute(index.getValue());
+            }
+            session.execute(DROP_MODERATION_QUEUE_INDEX);
+        } finally {
+            session.queryForObject("select pg_advisory_unlock(?)", Boolean.class, LOCK_KEY);
+            connection.setAutoCommit(autoCommit);
+        }
+        return null;
+    }
+}
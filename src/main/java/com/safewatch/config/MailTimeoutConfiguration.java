@@ -0,0 +1,39 @@
+package com.safewatch.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.Duration;
+import java.util.Properties;
+
+//cancelling a send does not interrupt a blocked socket read, so JavaMail's own timeouts are what actually bound it
+@Configuration
+public class MailTimeoutConfiguration {
+
+    @Bean
+    public static BeanPostProcessor mailTimeoutPostProcessor(@Value("${app.mail.smtp.socket-timeout:PT10S}") Duration socketTimeout,
+                                                             @Value("${app.mail.outbox.send-timeout:PT30S}") Duration sendTimeout) {
+        if (socketTimeout.compareTo(sendTimeout) >= 0) {
+            throw new IllegalStateException("app.mail.smtp.socket-timeout (" + socketTimeout + ") must be below app.mail.outbox.send-timeout (" + sendTimeout + ")");
+        }
+        String millis = String.valueOf(socketTimeout.toMillis());
+
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof JavaMailSenderImpl sender) {
+                    //keyed by protocol so smtps gets the same bounds as smtp
+                    String prefix = "mail." + sender.getProtocol() + ".";
+                    Properties properties = sender.getJavaMailProperties();
+                    properties.setProperty(prefix + "connectiontimeout", millis);
+                    properties.setProperty(prefix + "timeout", millis);
+                    properties.setProperty(prefix + "writetimeout", millis);
+                }
+                return bean;
+            }
+        };
+    }
+}
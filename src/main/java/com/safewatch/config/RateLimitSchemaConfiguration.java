@@ -0,0 +1,29 @@
+package com.safewatch.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import javax.sql.DataSource;
+
+//bucket table for the jdbc rate limit backend, created before JdbcBucketStore is built
+@Configuration
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "jdbc")
+public class RateLimitSchemaConfiguration {
+
+    @Bean
+    public DataSourceInitializer rateLimitSchemaInitializer(DataSource dataSource) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator(new ClassPathResource("db/rate-limit-buckets.sql"));
+        //the script has a dollar-quoted function body, so it goes to Postgres whole instead of split on ';'
+        populator.setSeparator(ScriptUtils.EOF_STATEMENT_SEPARATOR);
+
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(populator);
+        return initializer;
+    }
+}
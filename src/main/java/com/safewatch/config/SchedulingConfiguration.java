@@ -0,0 +1,28 @@
+package com.safewatch.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+//mail dispatch, session flush, token purge, partition upkeep, bucket cleanup and policy reload each get a thread,
+//so one slow job cannot stall the others the way Boot's default single-threaded scheduler would
+@Configuration
+public class SchedulingConfiguration {
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler(@Value("${app.scheduling.pool-size:6}") int poolSize,
+                                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        //defining this bean turns off Boot's scheduler auto-configuration, so the virtual thread switch is applied here
+        if (virtualThreads) {
+            scheduler.setThreadFactory(Thread.ofVirtual().name("scheduled-", 0).factory());
+        } else {
+            scheduler.setThreadNamePrefix("scheduled-");
+        }
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -0,0 +1,130 @@
+package com.safewatch.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+//monthly range partitions on expires_at, expired months are dropped whole instead of row by row
+//tables are only managed once converted, see db/token-partitioning.sql
+@Component
+public class TokenPartitionManager {
+    private static final List<String> TABLES = List.of("refresh_tokens", "verification_token");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final Duration grace;
+    private final Duration longestLifetime;
+    private final Logger logger = LoggerFactory.getLogger(TokenPartitionManager.class);
+
+    public TokenPartitionManager(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.tokens.partitions.months-ahead:3}") int monthsAhead,
+                                 @Value("${app.tokens.purge.grace:PT24H}") Duration grace,
+                                 @Value("${refresh.expiration-ms}") long refreshExpirationMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.grace = grace;
+        this.longestLifetime = Duration.ofMillis(refreshExpirationMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${app.tokens.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        for (String table : TABLES) {
+            try {
+                if (!isPartitioned(table)) {
+                    logger.debug("Table {} is not partitioned, skipping partition maintenance", table);
+                    continue;
+                }
+                createAhead(table);
+                dropExpired(table);
+            } catch (Exception e) {
+                logger.warn("Partition maintenance failed for {}", table, e);
+            }
+        }
+    }
+
+    private boolean isPartitioned(String table) {
+        Boolean partitioned = jdbcTemplate.queryForObject("""
+                select exists (select 1
+                                 from pg_partitioned_table p
+                                 join pg_class c on c.oid = p.partrelid
+                                where c.relname = ?
+                                  and c.relnamespace = current_schema()::regnamespace)
+                """, Boolean.class, table);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    //there is no default partition, so the horizon reaches past the longest token issued before the next daily run
+    private void createAhead(String table) {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        YearMonth current = YearMonth.from(now);
+        YearMonth last = YearMonth.from(now.plus(longestLifetime).plusDays(1));
+        if (last.isBefore(current.plusMonths(monthsAhead))) {
+            last = current.plusMonths(monthsAhead);
+        }
+
+        for (YearMonth month = current; !month.isAfter(last); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("create table if not exists " + partitionName(table, month)
+                    + " partition of " + table
+                    + " for values from ('" + month.atDay(1) + " 00:00:00+00')"
+                    + " to ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+        }
+    }
+
+    //a month is dropped once everything in it is past expiry plus the same grace the row purge uses
+    private void dropExpired(String table) {
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(grace);
+
+        List<String> partitions = jdbcTemplate.queryForList("""
+                select c.relname
+                  from pg_inherits i
+                  join pg_class c on c.oid = i.inhrelid
+                  join pg_class p on p.oid = i.inhparent
+                 where p.relname = ?
+                   and p.relnamespace = current_schema()::regnamespace
+                """, String.class, table);
+
+        for (String partition : partitions) {
+            YearMonth month = monthOf(table, partition);
+            if (month == null) continue;
+
+            OffsetDateTime upperBound = month.plusMonths(1).atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+            if (!upperBound.isAfter(cutoff)) {
+                jdbcTemplate.execute("drop table if exists " + partition);
+                logger.info("Dropped expired token partition {}", partition);
+            }
+        }
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    //partitions not named by this class (a default partition, say) are left alone
+    private static YearMonth monthOf(String table, String partition) {
+        String prefix = table + "_p";
+        if (!partition.startsWith(prefix)) return null;
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
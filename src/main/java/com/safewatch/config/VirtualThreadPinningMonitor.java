@@ -0,0 +1,81 @@
+package com.safewatch.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+//active with spring.threads.virtual.enabled=true, reports virtual threads that stay pinned to their carrier
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.safewatch.";
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private final boolean enabled;
+    private final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, @Value("${app.threads.pinning-monitor.enabled:true}") boolean enabled, @Value("${app.threads.pinning-monitor.threshold:PT0.02S}") Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.threshold = threshold;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        logger.info("Virtual thread pinning monitor started, threshold={}", threshold);
+    }
+
+    private void report(RecordedEvent event) {
+        String site = pinningSite(event.getStackTrace());
+
+        Counter.builder("jvm.threads.virtual.pinned")
+                .tag("site", site)
+                .register(meterRegistry)
+                .increment();
+
+        logger.warn("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+        if (logger.isDebugEnabled() && event.getStackTrace() != null) {
+            logger.debug("Pinned stack:\n{}", event.getStackTrace());
+        }
+    }
+
+    //first frame from our own code, otherwise the top frame, so the metric points at something we can fix
+    private String pinningSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) return "unknown";
+
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(APP_PACKAGE)) return type + "." + frame.getMethod().getName();
+        }
+
+        RecordedFrame top = stackTrace.getFrames().getFirst();
+        return top.getMethod().getType().getName() + "." + top.getMethod().getName();
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) stream.close();
+    }
+}
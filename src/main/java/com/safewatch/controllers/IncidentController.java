@@ -1,5 +1,6 @@
 package com.safewatch.controllers;
 
+import com.safewatch.DTOs.CursorPageDTO;
 import com.safewatch.DTOs.IncidentDTO;
 import com.safewatch.models.Incident;
 import com.safewatch.services.IncidentService;
@@ -70,6 +71,26 @@ public class IncidentController {
         return ResponseEntity.ok(service.filterBySeverity(severity,page,size));
     }
 
+    @GetMapping("/scroll/reports")
+    public ResponseEntity<CursorPageDTO<IncidentDTO>> scrollAllIncidents(@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(service.scrollAllReports(cursor, size));
+    }
+
+    @GetMapping("/scroll/category")
+    public ResponseEntity<CursorPageDTO<IncidentDTO>> scrollByCategory(@RequestParam String category, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(service.scrollByCategory(category, cursor, size));
+    }
+
+    @GetMapping("/scroll/status")
+    public ResponseEntity<CursorPageDTO<IncidentDTO>> scrollByStatus(@RequestParam String status, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(service.scrollByStatus(status, cursor, size));
+    }
+
+    @GetMapping("/scroll/severity")
+    public ResponseEntity<CursorPageDTO<IncidentDTO>> scrollBySeverity(@RequestParam String severity, @RequestParam(required = false) String cursor, @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(service.scrollBySeverity(severity, cursor, size));
+    }
+
     @DeleteMapping("/delete/{reportId}")
     public ResponseEntity<String> deleteReportById(Authentication authentication, @PathVariable Long reportId) {
         String email = extractEmail(authentication);
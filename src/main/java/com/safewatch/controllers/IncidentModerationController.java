@@ -1,26 +1,43 @@
 package com.safewatch.controllers;
 
+import com.safewatch.DTOs.BulkTransitionResultDTO;
 import com.safewatch.DTOs.IncidentDTO;
+import com.safewatch.DTOs.IncidentRowDTO;
+import com.safewatch.DTOs.ModerationDetailDTO;
+import com.safewatch.models.Status;
 import com.safewatch.security.UserPrincipal;
+import com.safewatch.services.IncidentExportService;
 import com.safewatch.services.IncidentModerationService;
+import com.safewatch.util.reportRelated.BulkTransitionRequest;
+import com.safewatch.util.reportRelated.ExportFormat;
+import com.safewatch.util.reportRelated.StatusTransition;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @SuppressWarnings("NullableProblems")
 @RestController
 @RequestMapping("/api/admin/incidents")
 @RequiredArgsConstructor
-@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+@PreAuthorize("hasAnyAuthority('ROLE_MODERATOR', 'ROLE_ADMIN', 'ROLE_SUPER_ADMIN')")
 public class IncidentModerationController {
     private final IncidentModerationService incidentModerationService;
+    private final IncidentExportService incidentExportService;
     private final Logger logger = LoggerFactory.getLogger(IncidentModerationController.class);
     //re-assigning roles -> user-moderator when certain requirements are met -> send an alert to admin email
 
@@ -63,12 +80,49 @@ public class IncidentModerationController {
     }
 
     @GetMapping("/reports")
-    public ResponseEntity<List<IncidentDTO>> getAllReports() {
-        return ResponseEntity.ok(incidentModerationService.getAllReports());
+    public void exportReports(@RequestParam(defaultValue = "json") String format, HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = ExportFormat.from(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=incidents." + exportFormat.getExtension());
+
+        incidentExportService.exportReports(exportFormat, response.getOutputStream());
+    }
+
+    @PostMapping("/queue/claim")
+    public ResponseEntity<List<IncidentRowDTO>> claimNext(Authentication authentication, @RequestParam(defaultValue = "10") int count) {
+        String email = extractEmail(authentication);
+        return ResponseEntity.ok(incidentModerationService.claimNext(email, count));
+    }
+
+    @PostMapping("/queue/release")
+    public ResponseEntity<Map<String, Integer>> releaseClaims(Authentication authentication, @RequestBody List<Long> reportIds) {
+        String email = extractEmail(authentication);
+        return ResponseEntity.ok(Map.of("released", incidentModerationService.releaseClaims(email, reportIds)));
+    }
+
+    @PostMapping("/transitions")
+    public ResponseEntity<List<BulkTransitionResultDTO>> bulkTransition(Authentication authentication, @RequestBody @Valid BulkTransitionRequest request) {
+        String email = extractEmail(authentication);
+        return ResponseEntity.ok(incidentModerationService.bulkTransition(email, request.items()));
+    }
+
+    //transitions the caller's role may make from each status, for the moderation UI
+    @GetMapping("/transitions/allowed")
+    public ResponseEntity<Map<Status, Set<Status>>> allowedTransitions(Authentication authentication) {
+        extractEmail(authentication);
+        UserPrincipal principal = (UserPrincipal) authentication.getPrincipal();
+        return ResponseEntity.ok(StatusTransition.graph(principal.getRole()));
+    }
+
+    @GetMapping(value = "/transitions/graph", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> transitionGraph() {
+        return ResponseEntity.ok(StatusTransition.describe());
     }
 
     @GetMapping("/report/{reportId}")
-    public ResponseEntity<IncidentDTO> getReportById(@PathVariable Long reportId) {
+    public ResponseEntity<ModerationDetailDTO> getReportById(@PathVariable Long reportId) {
         return ResponseEntity.ok(incidentModerationService.getReportById(reportId));
     }
 
@@ -0,0 +1,24 @@
+package com.safewatch.controllers;
+
+import com.safewatch.services.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@RequiredArgsConstructor
+@PreAuthorize("hasAuthority('ROLE_ADMIN')")
+public class SessionAdminController {
+    private final UserService userService;
+
+    //log out everywhere, or only the sessions opened from one user agent when it is given
+    @DeleteMapping("/{userId}/sessions")
+    public ResponseEntity<Map<String, Integer>> revokeSessions(@PathVariable Long userId, @RequestParam(required = false) String userAgent) {
+        int revoked = userAgent == null ? userService.logoutEverywhere(userId) : userService.logoutDevice(userId, userAgent);
+        return ResponseEntity.ok(Map.of("revoked", revoked));
+    }
+}
@@ -122,4 +122,14 @@ public class GlobalExceptionHandler {
 
         return new ResponseEntity<>(errorResponse,HttpStatus.CONFLICT);
     }
+
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException exception) {
+        ErrorResponse errorResponse = new ErrorResponse(LocalDateTime.now()
+                ,HttpStatus.SERVICE_UNAVAILABLE.value()
+                ,"Service busy."
+                ,exception.getMessage());
+
+        return new ResponseEntity<>(errorResponse,HttpStatus.SERVICE_UNAVAILABLE);
+    }
 }
@@ -11,6 +11,11 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
+@NamedEntityGraph(name = "Incident.withReviewer", attributeNodes = {
+        @NamedAttributeNode(value = "reviewedBy", subgraph = "reviewer")
+}, subgraphs = {
+        @NamedSubgraph(name = "reviewer", attributeNodes = @NamedAttributeNode("userRole"))
+})
 @Getter
 @Setter
 @AllArgsConstructor
@@ -62,12 +67,20 @@ public class Incident {
     @JsonBackReference
     private User reportedBy;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reviewed_by")
     private User reviewedBy;
 
     @Column(name = "review_comment",length = 500)
     private String reviewComment;
 
+    //moderation queue lease, the claim is void once claimedUntil has passed
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "claimed_by")
+    private User claimedBy;
+
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+
 
 }
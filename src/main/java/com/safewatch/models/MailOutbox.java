@@ -0,0 +1,47 @@
+package com.safewatch.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "mail_outbox", indexes = {
+        @Index(name = "idx_mail_outbox_due", columnList = "status, next_attempt_at")
+})
+@Getter
+@Setter
+public class MailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, name = "recipient")
+    private String recipient;
+
+    @Column(nullable = false, name = "subject")
+    private String subject;
+
+    @Column(nullable = false, name = "body", columnDefinition = "text")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, name = "status", length = 20)
+    private MailStatus status = MailStatus.PENDING;
+
+    @Column(nullable = false, name = "attempts")
+    private int attempts = 0;
+
+    @Column(nullable = false, name = "next_attempt_at")
+    private Instant nextAttemptAt = Instant.now();
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+    @Column(nullable = false, name = "created_at")
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+}
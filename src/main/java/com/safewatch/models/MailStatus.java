@@ -0,0 +1,5 @@
+package com.safewatch.models;
+
+public enum MailStatus {
+    PENDING, SENT, DEAD
+}
@@ -61,6 +61,10 @@ public class User {
     @Column(name = "lock_until")
     private OffsetDateTime lockUntil;
 
+    //bumped on credential changes, access tokens carrying an older version are rejected
+    @Column(name = "token_version", nullable = false, columnDefinition = "integer default 0")
+    private int tokenVersion = 0;
+
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "role_fk")
     private UserRole userRole;
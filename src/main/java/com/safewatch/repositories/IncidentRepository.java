@@ -1,21 +1,166 @@
 package com.safewatch.repositories;
 
+import com.safewatch.DTOs.IncidentDTO;
+import com.safewatch.DTOs.IncidentRowDTO;
 import com.safewatch.models.Incident;
 import com.safewatch.models.IncidentCategory;
 import com.safewatch.models.Severity;
 import com.safewatch.models.Status;
+import com.safewatch.models.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface IncidentRepository extends JpaRepository<Incident, Long> {
 
-    Page<Incident> findAll(Pageable pageable);
+    //moderation detail view, reviewer and its role come back in the same select
+    @EntityGraph("Incident.withReviewer")
+    Optional<Incident> findWithReviewerByIncidentId(Long incidentId);
+
+    //projections straight into IncidentDTO, no managed entities or reviewer loads
+    @Query(value = """
+                select new com.safewatch.DTOs.IncidentDTO(i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+            """,
+            countQuery = "select count(i) from Incident i")
+    Page<IncidentDTO> findAllProjected(Pageable pageable);
+
+    @Query(value = """
+                select new com.safewatch.DTOs.IncidentDTO(i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.incidentCategory = :category
+            """,
+            countQuery = "select count(i) from Incident i where i.incidentCategory = :category")
+    Page<IncidentDTO> findProjectedByIncidentCategory(@Param("category") IncidentCategory category, Pageable pageable);
+
+    @Query(value = """
+                select new com.safewatch.DTOs.IncidentDTO(i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.status = :status
+            """,
+            countQuery = "select count(i) from Incident i where i.status = :status")
+    Page<IncidentDTO> findProjectedByStatus(@Param("status") Status status, Pageable pageable);
+
+    @Query(value = """
+                select new com.safewatch.DTOs.IncidentDTO(i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.severity = :severity
+            """,
+            countQuery = "select count(i) from Incident i where i.severity = :severity")
+    Page<IncidentDTO> findProjectedBySeverity(@Param("severity") Severity severity, Pageable pageable);
+
+    //keyset queries: seek past (reportedAt, incidentId) instead of counting and skipping offset rows
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where (i.reportedAt, i.incidentId) > (:reportedAt, :incidentId)
+                 order by i.reportedAt asc, i.incidentId asc
+            """)
+    List<IncidentRowDTO> findAllAfter(@Param("reportedAt") LocalDateTime reportedAt, @Param("incidentId") Long incidentId, Limit limit);
+
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.incidentCategory = :category
+                   and (i.reportedAt, i.incidentId) > (:reportedAt, :incidentId)
+                 order by i.reportedAt asc, i.incidentId asc
+            """)
+    List<IncidentRowDTO> findByIncidentCategoryAfter(@Param("category") IncidentCategory category, @Param("reportedAt") LocalDateTime reportedAt, @Param("incidentId") Long incidentId, Limit limit);
+
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.status = :status
+                   and (i.reportedAt, i.incidentId) > (:reportedAt, :incidentId)
+                 order by i.reportedAt asc, i.incidentId asc
+            """)
+    List<IncidentRowDTO> findByStatusAfter(@Param("status") Status status, @Param("reportedAt") LocalDateTime reportedAt, @Param("incidentId") Long incidentId, Limit limit);
+
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.severity = :severity
+                   and (i.reportedAt, i.incidentId) > (:reportedAt, :incidentId)
+                 order by i.reportedAt asc, i.incidentId asc
+            """)
+    List<IncidentRowDTO> findBySeverityAfter(@Param("severity") Severity severity, @Param("reportedAt") LocalDateTime reportedAt, @Param("incidentId") Long incidentId, Limit limit);
+
+    //moderation queue: most severe first then oldest, rows locked by another claim are skipped rather than waited on
+    @Query(value = """
+                select incident_id
+                  from incident
+                 where status in ('PENDING', 'FLAGGED')
+                   and (claimed_until is null or claimed_until < :now or claimed_by = :moderatorId)
+                 order by case severity when 'EXTREME' then 0 when 'HIGH' then 1 when 'MEDIUM' then 2 else 3 end,
+                          reported_at, incident_id
+                 limit :limit
+                 for update skip locked
+            """, nativeQuery = true)
+    List<Long> lockClaimable(@Param("moderatorId") Long moderatorId, @Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update Incident i set i.claimedBy = :moderator, i.claimedUntil = :until where i.incidentId in :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("moderator") User moderator, @Param("until") LocalDateTime until);
+
+    @Modifying
+    @Query("update Incident i set i.claimedBy = null, i.claimedUntil = null where i.incidentId in :ids and i.claimedBy = :moderator")
+    int release(@Param("ids") List<Long> ids, @Param("moderator") User moderator);
+
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 where i.incidentId in :ids
+            """)
+    List<IncidentRowDTO> findRowsByIds(@Param("ids") List<Long> ids);
 
-    Page<Incident> findByIncidentCategory(IncidentCategory category, Pageable pageable);
+    //bulk moderation: rows locked in id order so concurrent bulk calls cannot deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Incident i where i.incidentId in :ids order by i.incidentId")
+    List<Incident> lockAllById(@Param("ids") Collection<Long> ids);
 
-    Page<Incident> findByStatus(Status status, Pageable pageable);
+    @Modifying(clearAutomatically = true)
+    @Query("""
+                update Incident i
+                   set i.status = :target,
+                       i.reviewedBy = :reviewer,
+                       i.reviewedAt = :now,
+                       i.updatedAt = :now,
+                       i.reviewComment = :comment,
+                       i.claimedBy = null,
+                       i.claimedUntil = null,
+                       i.version = i.version + 1
+                 where i.incidentId in :ids
+            """)
+    int applyTransition(@Param("ids") List<Long> ids, @Param("target") Status target, @Param("reviewer") User reviewer,
+                        @Param("now") LocalDateTime now, @Param("comment") String comment);
 
-    Page<Incident> findBySeverity(Severity severity, Pageable pageable);
+    //export cursor: rows are pulled from the driver in fetch-size chunks, must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("""
+                select new com.safewatch.DTOs.IncidentRowDTO(i.incidentId, i.reportedAt, i.title, i.description, i.location, i.severity, i.incidentCategory, i.status, i.version)
+                  from Incident i
+                 order by i.incidentId asc
+            """)
+    Stream<IncidentRowDTO> streamAllForExport();
 
 }
@@ -0,0 +1,42 @@
+package com.safewatch.repositories;
+
+import com.safewatch.models.MailOutbox;
+import com.safewatch.models.MailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MailOutboxRepository extends JpaRepository<MailOutbox, Long> {
+
+    //rows locked by another node's dispatcher are skipped rather than waited on
+    @Query(value = """
+                select id from mail_outbox
+                 where status = 'PENDING'
+                   and next_attempt_at <= :now
+                 order by next_attempt_at
+                 limit :limit
+                 for update skip locked
+            """, nativeQuery = true)
+    List<Long> lockDueIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("update MailOutbox m set m.nextAttemptAt = :leaseUntil where m.id in :ids")
+    int lease(@Param("ids") List<Long> ids, @Param("leaseUntil") Instant leaseUntil);
+
+    //bodies carry raw verification and reset tokens, they are blanked as soon as the row is final
+    @Modifying
+    @Query("update MailOutbox m set m.status = :status, m.sentAt = :sentAt, m.attempts = m.attempts + 1, m.body = '' where m.id = :id")
+    int markSent(@Param("id") Long id, @Param("status") MailStatus status, @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("update MailOutbox m set m.status = :status, m.attempts = :attempts, m.nextAttemptAt = :nextAttemptAt, m.lastError = :error where m.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") MailStatus status, @Param("attempts") int attempts, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Query("update MailOutbox m set m.status = com.safewatch.models.MailStatus.DEAD, m.attempts = :attempts, m.lastError = :error, m.body = '' where m.id = :id")
+    int markDead(@Param("id") Long id, @Param("attempts") int attempts, @Param("error") String error);
+}
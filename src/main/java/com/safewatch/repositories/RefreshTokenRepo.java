@@ -15,15 +15,28 @@ import java.util.UUID;
 public interface RefreshTokenRepo extends JpaRepository<RefreshToken, Long> {
     Optional<RefreshToken> findByTokenHash(String accessToken);
 
-    List<RefreshToken> findAllBySessionId(UUID sessionId);
-
     @Query("SELECT count(t) FROM RefreshToken t WHERE t.userId = :userId AND t.revokedAt IS NULL AND t.expiresAt > :now")
     long countActive(@Param("userId") Long userId, @Param("now") Instant now);
 
     @Query("SELECT t FROM RefreshToken t WHERE t.userId = :userId and t.revokedAt IS NULL AND t.expiresAt > :now ORDER BY t.createdAt ASC")
     List<RefreshToken> findOldestToken(@Param("userId") long userId, @Param("now") Instant now, Pageable pageable);
 
+    @Query("SELECT t FROM RefreshToken t WHERE t.userId = :userId AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    List<RefreshToken> findActive(@Param("userId") Long userId, @Param("now") Instant now);
+
     @Modifying
     @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.id IN :ids AND t.revokedAt IS NULL")
     int revokeByIds(@Param("ids") List<Long> ids,@Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.sessionId = :sessionId AND t.revokedAt IS NULL")
+    int revokeBySessionId(@Param("sessionId") UUID sessionId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.userId = :userId AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    int revokeByUserId(@Param("userId") Long userId, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :now WHERE t.userId = :userId AND t.userAgent = :userAgent AND t.revokedAt IS NULL AND t.expiresAt > :now")
+    int revokeByUserIdAndUserAgent(@Param("userId") Long userId, @Param("userAgent") String userAgent, @Param("now") Instant now);
 }
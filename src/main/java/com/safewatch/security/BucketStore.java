@@ -0,0 +1,11 @@
+package com.safewatch.security;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+import java.util.function.Supplier;
+
+public interface BucketStore {
+
+    Bucket resolve(String key, Supplier<BucketConfiguration> configuration);
+}
@@ -0,0 +1,117 @@
+package com.safewatch.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.jdbc.BucketTableSettings;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.jdbc.SQLProxyConfiguration;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.function.Supplier;
+
+//bucket state shared by every node through Postgres, each node syncs in small batches instead of per request
+//the table comes from db/rate-limit-buckets.sql, run by RateLimitSchemaConfiguration
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.backend", havingValue = "jdbc")
+@DependsOn("rateLimitSchemaInitializer")
+public class JdbcBucketStore implements BucketStore {
+    private static final String TABLE = "rate_limit_buckets";
+
+    //a row untouched for longer than the slowest refill describes a full bucket, Bucket4j recreates it on next use
+    private static final String PURGE_IDLE = """
+            delete from rate_limit_buckets
+             where id in (select id from rate_limit_buckets
+                           where touched_at < ?
+                           limit ?
+                           for update skip locked)
+            """;
+
+    private final Logger logger = LoggerFactory.getLogger(JdbcBucketStore.class);
+    private final PostgreSQLSelectForUpdateBasedProxyManager<String> proxyManager;
+    private final Optimization optimization;
+    private final Cache<String, Bucket> proxies;
+    private final JdbcTemplate jdbcTemplate;
+    private final RateLimitPolicies policies;
+    private final Duration rowExpiry;
+    private final int purgeBatchSize;
+    private final Counter purged;
+
+    public JdbcBucketStore(DataSource dataSource, MeterRegistry meterRegistry, RateLimitPolicies policies,
+                           @Value("${app.rate-limit.jdbc.sync-tokens:5}") long syncTokens,
+                           @Value("${app.rate-limit.jdbc.sync-interval:PT1S}") Duration syncInterval,
+                           @Value("${app.rate-limit.buckets.idle-expiry:PT10M}") Duration idleExpiry,
+                           @Value("${app.rate-limit.buckets.max-size:100000}") long maxSize,
+                           @Value("${app.rate-limit.jdbc.row-expiry:PT1H}") Duration rowExpiry,
+                           @Value("${app.rate-limit.jdbc.purge-batch-size:1000}") int purgeBatchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.policies = policies;
+        this.rowExpiry = rowExpiry;
+        this.purgeBatchSize = purgeBatchSize;
+        this.purged = Counter.builder("ratelimit.buckets.purged").register(meterRegistry);
+
+        SQLProxyConfiguration<String> configuration = SQLProxyConfiguration.builder()
+                .withTableSettings(BucketTableSettings.customSettings(TABLE, "id", "state"))
+                .withPrimaryKeyMapper(PrimaryKeyMapper.STRING)
+                .build(dataSource);
+
+        this.proxyManager = new PostgreSQLSelectForUpdateBasedProxyManager<>(configuration);
+
+        //up to syncTokens consumptions (or syncInterval) are served locally before state is written back
+        this.optimization = Optimizations.delaying(new DelayParameters(syncTokens, syncInterval));
+
+        //proxies carry the local pre-allocation, so they are kept per key rather than rebuilt per request
+        this.proxies = Caffeine.newBuilder()
+                .expireAfterAccess(idleExpiry)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, proxies, "ratelimit.buckets");
+    }
+
+    @Override
+    public Bucket resolve(String key, Supplier<BucketConfiguration> configuration) {
+        return proxies.get(key, k -> proxyManager.builder()
+                .withOptimization(optimization)
+                .build(k, configuration));
+    }
+
+    //every node may run this, skip locked keeps concurrent purges and live bucket updates out of each other's way
+    @Scheduled(fixedDelayString = "${app.rate-limit.jdbc.purge-interval-ms:60000}")
+    public void purgeIdle() {
+        //read per run, a reloaded policy file may have brought in a longer period such as 10/day
+        Duration expiry = policies.longestPeriod().compareTo(rowExpiry) > 0 ? policies.longestPeriod() : rowExpiry;
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minus(expiry);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_IDLE, cutoff, purgeBatchSize);
+            total += deleted;
+        } while (deleted == purgeBatchSize);
+
+        if (total > 0) {
+            purged.increment(total);
+            logger.debug("Purged {} idle rate limit buckets", total);
+        }
+    }
+}
@@ -2,12 +2,13 @@ package com.safewatch.security;
 
 import com.safewatch.services.JwtService;
 import com.safewatch.services.MyUserDetailsService;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,12 +17,29 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Service
-@RequiredArgsConstructor
 public class JwtFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
     private final MyUserDetailsService userDetailsService;
+    private final boolean stateless;
+    private final List<String> revalidatePaths;
+
+    public JwtFilter(JwtService jwtService, MyUserDetailsService userDetailsService, @Value("${jwt.stateless.enabled:true}") boolean stateless, @Value("${jwt.stateless.revalidate-paths:/api/admin/,/api/update/}") List<String> revalidatePaths) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.stateless = stateless;
+        this.revalidatePaths = revalidatePaths;
+    }
+
+    //admin and account routes re-check the stored user so revoked tokens can't reach them
+    private boolean requiresRevocationCheck(String path) {
+        for (String prefix : revalidatePaths) {
+            if (path.startsWith(prefix)) return true;
+        }
+        return false;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -41,12 +59,28 @@ public class JwtFilter extends OncePerRequestFilter {
 
         try {
             final String token = authHeader.substring(7);
-            final String username = jwtService.extractUsername(token);
+            final Claims claims = jwtService.extractAllClaims(token);
+            final String username = claims.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                UserDetails userDetails = null;
+
+                if (stateless && !requiresRevocationCheck(path)) {
+                    userDetails = jwtService.principalFrom(claims);
+                }
+
+                if (userDetails == null) {
+                    userDetails = userDetailsService.loadUserByUsername(username);
+
+                    Integer tokenVersion = jwtService.extractTokenVersion(claims);
+                    if (tokenVersion != null && userDetails instanceof UserPrincipal principal && principal.getTokenVersion() != tokenVersion) {
+                        SecurityContextHolder.clearContext();
+                        filterChain.doFilter(request, response);
+                        return;
+                    }
+                }
 
-                if (jwtService.validateToken(userDetails, token)) {
+                if (jwtService.validateToken(userDetails, claims)) {
                     UsernamePasswordAuthenticationToken authenticationToken = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authenticationToken);
@@ -0,0 +1,213 @@
+package com.safewatch.security;
+
+import com.safewatch.models.RoleType;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+//AIMD concurrency limit: grows by one per healthy window, shrinks when the window's latency percentile
+//misses the target or the DB pool is starved. Runs after JwtFilter so requests are classified by role.
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    enum Priority {
+        //share of the current limit each class may occupy, anonymous reads are shed first
+        CRITICAL(1.0), AUTHENTICATED(0.85), ANONYMOUS(0.6);
+
+        private final double share;
+
+        Priority(double share) {
+            this.share = share;
+        }
+    }
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    //a window closed by time with fewer samples than this says nothing reliable about latency
+    private static final int MIN_SAMPLES = 10;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+    private final AtomicReference<Window> window;
+    private final double minLimit;
+    private final double maxLimit;
+    private final long targetLatencyNanos;
+    private final double percentile;
+    private final int windowSize;
+    private final long windowNanos;
+    private final Set<String> unsampledPaths;
+    private final boolean enabled;
+    private final DataSource dataSource;
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    public LoadSheddingFilter(DataSource dataSource, MeterRegistry meterRegistry,
+                              @Value("${app.load-shedding.enabled:true}") boolean enabled,
+                              @Value("${app.load-shedding.initial-limit:100}") double initialLimit,
+                              @Value("${app.load-shedding.min-limit:10}") double minLimit,
+                              @Value("${app.load-shedding.max-limit:1000}") double maxLimit,
+                              @Value("${app.load-shedding.target-latency:PT0.5S}") Duration targetLatency,
+                              @Value("${app.load-shedding.latency-percentile:0.9}") double percentile,
+                              @Value("${app.load-shedding.window-size:200}") int windowSize,
+                              @Value("${app.load-shedding.window:PT1S}") Duration window,
+                              //streaming export, bulk moderation and BCrypt-bound auth routes are slow by design
+                              @Value("${app.load-shedding.unsampled-paths:/api/admin/incidents/reports,/api/admin/incidents/transitions,/api/login,/api/register,/api/update/password,/api/auth/password-reset/confirm}") Set<String> unsampledPaths) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.limitBits = new AtomicLong(Double.doubleToLongBits(initialLimit));
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        this.percentile = percentile;
+        this.windowSize = windowSize;
+        this.windowNanos = window.toNanos();
+        this.unsampledPaths = Set.copyOf(unsampledPaths);
+        this.window = new AtomicReference<>(new Window(windowSize));
+
+        Gauge.builder("http.concurrency.limit", this, LoadSheddingFilter::limit).register(meterRegistry);
+        Gauge.builder("http.concurrency.in-flight", inFlight, AtomicInteger::get).register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            shed.put(priority, Counter.builder("http.requests.shed").tag("priority", priority.name()).register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Priority priority = classify(request);
+
+        if (!tryAcquire(priority)) {
+            shed.get(priority).increment();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "1");
+            response.getWriter().write("Service busy, try again shortly");
+            return;
+        }
+
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int observedInFlight = inFlight.getAndDecrement();
+            //long routes still hold a slot while they run, they just don't count as a latency signal
+            if (!unsampledPaths.contains(request.getServletPath())) {
+                record(System.nanoTime() - start, observedInFlight);
+            }
+        }
+    }
+
+    //classified on the authenticated role set by JwtFilter, a path prefix alone proves nothing
+    private Priority classify(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return Priority.ANONYMOUS;
+        }
+
+        if (UserRateLimiter.role(authentication).compareTo(RoleType.MODERATOR) >= 0
+                || ("POST".equals(request.getMethod()) && request.getServletPath().equals("/api/incident/report"))) {
+            return Priority.CRITICAL;
+        }
+        return Priority.AUTHENTICATED;
+    }
+
+    private boolean tryAcquire(Priority priority) {
+        int threshold = Math.max(1, (int) (limit() * priority.share));
+
+        while (true) {
+            int current = inFlight.get();
+            if (current >= threshold) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    private void record(long latencyNanos, int observedInFlight) {
+        Window current = window.get();
+        int slot = current.count.getAndIncrement();
+        if (slot < current.latencies.length()) {
+            current.latencies.set(slot, latencyNanos);
+        }
+        current.peakInFlight.accumulateAndGet(observedInFlight, Math::max);
+
+        boolean full = slot == current.latencies.length() - 1;
+        boolean expired = System.nanoTime() - current.startedAt >= windowNanos;
+        //only the thread that swaps the window in gets to judge the old one
+        if ((full || expired) && window.compareAndSet(current, new Window(windowSize))) {
+            adjust(current);
+        }
+    }
+
+    private void adjust(Window closed) {
+        int samples = Math.min(closed.count.get(), closed.latencies.length());
+        if (samples < MIN_SAMPLES) return;
+
+        long[] sorted = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            sorted[i] = closed.latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        long observed = sorted[Math.min(samples - 1, (int) Math.ceil(percentile * samples) - 1)];
+
+        double limit = limit();
+        if (observed > targetLatencyNanos || poolSaturated()) {
+            updateLimit(Math.max(minLimit, limit * DECREASE_FACTOR));
+        } else if (closed.peakInFlight.get() >= limit / 2) {
+            updateLimit(Math.min(maxLimit, limit + 1));
+        }
+    }
+
+    //one writer per closed window, the rare overlap of two closers is last write wins
+    private void updateLimit(double next) {
+        limitBits.set(Double.doubleToLongBits(next));
+    }
+
+    double limit() {
+        return Double.longBitsToDouble(limitBits.get());
+    }
+
+    private boolean poolSaturated() {
+        if (dataSource instanceof HikariDataSource hikari) {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            return pool != null && pool.getThreadsAwaitingConnection() > 0;
+        }
+        return false;
+    }
+
+    //latency samples of one window, a slot claimed just before the swap may still read as zero which only errs fast
+    private static final class Window {
+        private final AtomicLongArray latencies;
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicInteger peakInFlight = new AtomicInteger();
+        private final long startedAt = System.nanoTime();
+
+        private Window(int size) {
+            this.latencies = new AtomicLongArray(size);
+        }
+    }
+}
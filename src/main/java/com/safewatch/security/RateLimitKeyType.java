@@ -0,0 +1,5 @@
+package com.safewatch.security;
+
+public enum RateLimitKeyType {
+    IP, TOKEN, USER
+}
@@ -0,0 +1,144 @@
+package com.safewatch.security;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import tools.jackson.core.type.TypeReference;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.*;
+
+@Component
+public class RateLimitPolicies {
+    private static final String ANY_METHOD = "*";
+
+    private static final List<RateLimitPolicy> DEFAULTS = List.of(
+            new RateLimitPolicy("/api/login", "POST", RateLimitKeyType.IP, List.of(new RateLimitPolicy.Limit(5, Duration.ofMinutes(1)))),
+            new RateLimitPolicy("/api/register", "POST", RateLimitKeyType.IP, List.of(new RateLimitPolicy.Limit(3, Duration.ofMinutes(1)))),
+            new RateLimitPolicy("/api/update/password", "PUT", RateLimitKeyType.IP, List.of(new RateLimitPolicy.Limit(3, Duration.ofMinutes(1)))),
+            new RateLimitPolicy("/api/update/details", "PUT", RateLimitKeyType.IP, List.of(new RateLimitPolicy.Limit(3, Duration.ofMinutes(1)))),
+            new RateLimitPolicy("/api/incident/report", "POST", RateLimitKeyType.IP, List.of(new RateLimitPolicy.Limit(10, Duration.ofMinutes(1))))
+    );
+
+    private final JsonMapper jsonMapper;
+    private final String policyFile;
+    private final Logger logger = LoggerFactory.getLogger(RateLimitPolicies.class);
+
+    private volatile CompiledPolicies compiled;
+    private long loadedModified = -1;
+
+    public RateLimitPolicies(JsonMapper jsonMapper, @Value("${app.rate-limit.policy-file:}") String policyFile) {
+        this.jsonMapper = jsonMapper;
+        this.policyFile = policyFile;
+        this.compiled = compile(DEFAULTS);
+        reload();
+    }
+
+    public Match match(String method, String path) {
+        return compiled.match(method, path);
+    }
+
+    //slowest refill among the loaded policies, a bucket idle for this long is full again
+    public Duration longestPeriod() {
+        return compiled.longestPeriod();
+    }
+
+    //picks up edits to the policy file, a file that fails to parse leaves the current policies in place
+    @Scheduled(fixedDelayString = "${app.rate-limit.reload-interval-ms:10000}")
+    public void reload() {
+        if (policyFile == null || policyFile.isBlank()) return;
+
+        File file = new File(policyFile);
+        if (!file.isFile()) {
+            if (loadedModified != -1) logger.warn("Rate limit policy file missing, keeping current policies: {}", policyFile);
+            return;
+        }
+
+        long modified = file.lastModified();
+        if (modified == loadedModified) return;
+
+        try {
+            List<RateLimitPolicy> policies = jsonMapper.readValue(file, new TypeReference<List<RateLimitPolicy>>() {});
+            compiled = compile(policies);
+            loadedModified = modified;
+            logger.info("Loaded {} rate limit policies from {}", policies.size(), policyFile);
+        } catch (RuntimeException e) {
+            logger.error("Invalid rate limit policy file, keeping current policies: {}", policyFile, e);
+        }
+    }
+
+    private CompiledPolicies compile(List<RateLimitPolicy> policies) {
+        Map<String, Match> exact = new HashMap<>();
+        List<PatternEntry> patterns = new ArrayList<>();
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        Duration longestPeriod = Duration.ZERO;
+
+        for (RateLimitPolicy policy : policies) {
+            for (RateLimitPolicy.Limit limit : policy.limits()) {
+                if (limit.period().compareTo(longestPeriod) > 0) longestPeriod = limit.period();
+            }
+            String method = policy.method() == null ? ANY_METHOD : policy.method().toUpperCase();
+            RateLimitKeyType keyType = policy.keyType() == null ? RateLimitKeyType.IP : policy.keyType();
+            Match match = new Match(method + " " + policy.path() + " " + fingerprint(policy.limits()), keyType, configuration(policy.limits()));
+
+            PathPattern pattern = parser.parse(policy.path());
+            if (pattern.hasPatternSyntax()) {
+                patterns.add(new PatternEntry(method, pattern, match));
+            } else {
+                exact.put(method + " " + policy.path(), match);
+            }
+        }
+        return new CompiledPolicies(Map.copyOf(exact), List.copyOf(patterns), longestPeriod);
+    }
+
+    private BucketConfiguration configuration(List<RateLimitPolicy.Limit> limits) {
+        ConfigurationBuilder builder = BucketConfiguration.builder();
+        for (RateLimitPolicy.Limit limit : limits) {
+            builder.addLimit(Bandwidth.builder().capacity(limit.capacity()).refillGreedy(limit.capacity(), limit.period()).build());
+        }
+        return builder.build();
+    }
+
+    //part of the bucket key, so changing a route's limits starts it on fresh buckets
+    private String fingerprint(List<RateLimitPolicy.Limit> limits) {
+        StringBuilder sb = new StringBuilder();
+        for (RateLimitPolicy.Limit limit : limits) {
+            sb.append(limit.capacity()).append('/').append(limit.period()).append(';');
+        }
+        return sb.toString();
+    }
+
+    public record Match(String id, RateLimitKeyType keyType, BucketConfiguration configuration) {
+    }
+
+    private record PatternEntry(String method, PathPattern pattern, Match match) {
+    }
+
+    //exact routes resolve with a single hash lookup, patterns are only scanned when that misses
+    private record CompiledPolicies(Map<String, Match> exact, List<PatternEntry> patterns, Duration longestPeriod) {
+
+        Match match(String method, String path) {
+            Match match = exact.get(method + " " + path);
+            if (match == null) match = exact.get(ANY_METHOD + " " + path);
+            if (match != null || patterns.isEmpty()) return match;
+
+            PathContainer container = PathContainer.parsePath(path);
+            for (PatternEntry entry : patterns) {
+                if ((entry.method().equals(method) || entry.method().equals(ANY_METHOD)) && entry.pattern().matches(container)) {
+                    return entry.match();
+                }
+            }
+            return null;
+        }
+    }
+}
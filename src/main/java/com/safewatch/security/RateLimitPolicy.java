@@ -0,0 +1,14 @@
+package com.safewatch.security;
+
+import java.time.Duration;
+import java.util.List;
+
+//one entry of the policy file: path may be exact or a PathPattern such as /api/incident/get/**, method "*" matches any
+public record RateLimitPolicy(String path,
+                              String method,
+                              RateLimitKeyType keyType,
+                              List<Limit> limits) {
+
+    public record Limit(long capacity, Duration period) {
+    }
+}
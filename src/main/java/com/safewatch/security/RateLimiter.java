@@ -1,35 +1,41 @@
 package com.safewatch.security;
 
-import io.github.bucket4j.Bandwidth;
+import com.safewatch.util.tokenReset.TokenUntil;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Component
+@RequiredArgsConstructor
 public class RateLimiter extends OncePerRequestFilter {
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final BucketStore buckets;
+    private final RateLimitPolicies policies;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
 
         String path = request.getServletPath();
         String method = request.getMethod();
 
-        if (!shouldLimit(method,path)){
+        RateLimitPolicies.Match policy = policies.match(method, path);
+
+        //user-keyed policies need the authenticated subject, UserRateLimiter applies them after JwtFilter
+        if (policy == null || policy.keyType() == RateLimitKeyType.USER){
             filterChain.doFilter(request,response);
             return;
         }
 
-        String key = buildKey(request,path);
-        Bucket bucket = buckets.computeIfAbsent(key + ":" + path, k -> newBucket(path));
+        String key = buildKey(request, policy.keyType());
+        Bucket bucket = buckets.resolve(policy.id() + ":" + key, policy::configuration);
 
         var probe = bucket.tryConsumeAndReturnRemaining(1);
 
@@ -37,35 +43,25 @@ public class RateLimiter extends OncePerRequestFilter {
             response.setHeader("X-Rate-Limit-Remaining",String.valueOf(probe.getRemainingTokens()));
             filterChain.doFilter(request,response);
         }else {
-            long waitSeconds = probe.getNanosToWaitForRefill();
-            response.setStatus(429);
-            response.setHeader("Retry After",String.valueOf(Math.max(1,waitSeconds)));
-            response.getWriter().write("Too many requests, try again later");
+            reject(response, probe);
         }
     }
 
-    @SuppressWarnings("deprecation")
-    private Bucket newBucket(String path) {
-        Bandwidth limit;
-
-        if (path.equals("/api/login")) {
-            limit = Bandwidth.simple(5, Duration.ofMinutes(1));
-        } else if (path.equals("/api/register")) {
-            limit = Bandwidth.simple(3, Duration.ofMinutes(1));
-        } else if (path.equals("/api/update/password")) {
-            limit = Bandwidth.simple(3, Duration.ofMinutes(1));
-        } else if (path.equals("/api/update/details")) {
-            limit = Bandwidth.simple(3,Duration.ofMinutes(1));
-        } else if (path.equals("/api/incident/report")) {
-            limit = Bandwidth.simple(10, Duration.ofMinutes(1));
-        }else {
-            limit = Bandwidth.simple(30, Duration.ofMinutes(1));
-        }
-        return Bucket.builder().addLimit(limit).build();
+    static void reject(HttpServletResponse response, ConsumptionProbe probe) throws IOException {
+        long waitSeconds = TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill());
+        response.setStatus(429);
+        response.setHeader("Retry-After",String.valueOf(Math.max(1,waitSeconds)));
+        response.getWriter().write("Too many requests, try again later");
     }
 
-    private String buildKey(HttpServletRequest request, String path) {
-        return clientIp(request);
+    private String buildKey(HttpServletRequest request, RateLimitKeyType keyType) {
+        if (keyType == RateLimitKeyType.TOKEN) {
+            String authHeader = request.getHeader("Authorization");
+            if (authHeader != null && authHeader.startsWith("Bearer ")) {
+                return "token:" + TokenUntil.sha256(authHeader.substring(7));
+            }
+        }
+        return "ip:" + clientIp(request);
     }
 
     private String clientIp(HttpServletRequest request) {
@@ -73,14 +69,4 @@ public class RateLimiter extends OncePerRequestFilter {
         if(xf != null && !xf.isBlank()) return xf.split(",")[0].trim();
         return request.getRemoteAddr();
     }
-
-    private boolean shouldLimit(String method,String path) {
-        return ("POST".equals(method) && (
-                path.equals("/api/login") ||
-                path.equals("/api/register") ||
-                path.equals("/api/update/password")   ||
-                path.equals("/api/update/details")  ||
-                path.equals("/api/incident/report")
-                ));
-    }
 }
@@ -11,12 +11,13 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -28,9 +29,12 @@ import java.util.List;
 
 @Configuration
 @EnableWebSecurity
+@EnableMethodSecurity
 @RequiredArgsConstructor
 public class SecurityConfiguration {
     private final JwtFilter jwtFilter;
+    private final UserRateLimiter userRateLimiter;
+    private final LoadSheddingFilter loadSheddingFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity security) {
@@ -42,17 +46,22 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests(requests -> {
                     requests.requestMatchers("/api/login", "/api/refresh", "/api/register","/api/verify").permitAll()
                             .requestMatchers("/api/admin/*").hasAuthority("ROLE_ADMIN")
+                            .requestMatchers("/api/admin/users/**").hasAuthority("ROLE_ADMIN")
+                            .requestMatchers("/api/admin/incidents/**").hasAnyAuthority("ROLE_MODERATOR", "ROLE_ADMIN", "ROLE_SUPER_ADMIN")
                             .requestMatchers("/api/incident/*").authenticated()
                             .anyRequest().authenticated();
                 })
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(userRateLimiter, JwtFilter.class)
+                .addFilterAfter(loadSheddingFilter, UserRateLimiter.class)
                 .build();
     }
 
     @Bean
-    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, PasswordEncoder encoder) {
+    public AuthenticationProvider authenticationProvider(UserDetailsService userDetailsService, UserDetailsPasswordService passwordService, PasswordEncoder encoder) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
         provider.setPasswordEncoder(encoder);
+        provider.setUserDetailsPasswordService(passwordService);
 
         return provider;
 
@@ -63,11 +72,6 @@ public class SecurityConfiguration {
         return configuration.getAuthenticationManager();
     }
 
-    @Bean
-    public PasswordEncoder encoder() {
-        return new BCryptPasswordEncoder(12);
-    }
-
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration config = new CorsConfiguration();
@@ -78,6 +82,14 @@ public class SecurityConfiguration {
         return source;
     }
 
+    //runs inside the security chain only, it needs the authentication JwtFilter sets
+    @Bean
+    public FilterRegistrationBean<LoadSheddingFilter> loadSheddingFilterRegistrationBean(LoadSheddingFilter loadSheddingFilter) {
+        FilterRegistrationBean<LoadSheddingFilter> reg = new FilterRegistrationBean<>(loadSheddingFilter);
+        reg.setEnabled(false);
+        return reg;
+    }
+
     @Bean
     public FilterRegistrationBean<RateLimiter> rateLimiterFilterRegistrationBean(RateLimiter rateLimiter) {
         FilterRegistrationBean<RateLimiter> reg = new FilterRegistrationBean<>();
@@ -85,4 +97,12 @@ public class SecurityConfiguration {
         reg.setOrder(1);
         return reg;
     }
+
+    //runs inside the security chain only, not as a standalone servlet filter
+    @Bean
+    public FilterRegistrationBean<UserRateLimiter> userRateLimiterFilterRegistrationBean(UserRateLimiter userRateLimiter) {
+        FilterRegistrationBean<UserRateLimiter> reg = new FilterRegistrationBean<>(userRateLimiter);
+        reg.setEnabled(false);
+        return reg;
+    }
 }
@@ -1,6 +1,8 @@
 package com.safewatch.security;
 
+import com.safewatch.models.RoleType;
 import com.safewatch.models.User;
+import com.safewatch.models.UserRole;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
 import org.springframework.security.core.GrantedAuthority;
@@ -20,6 +22,29 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    //principal rebuilt from verified access token claims, no database row behind it
+    public static UserPrincipal fromClaims(Long userId, String email, RoleType role, int tokenVersion) {
+        User user = new User();
+        user.setUserID(userId);
+        user.setEmail(email);
+        user.setUserRole(new UserRole(null, role));
+        user.setTokenVersion(tokenVersion);
+        user.setEnabled(true);
+        return new UserPrincipal(user);
+    }
+
+    public Long getUserId() {
+        return user.getUserID();
+    }
+
+    public RoleType getRole() {
+        return user.getUserRole().getRoleName();
+    }
+
+    public int getTokenVersion() {
+        return user.getTokenVersion();
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return List.of(new SimpleGrantedAuthority("ROLE_" + user.getUserRole().getRoleName().name()));
@@ -0,0 +1,98 @@
+package com.safewatch.security;
+
+import com.safewatch.models.RoleType;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.env.Environment;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+//second limiting stage, runs after JwtFilter and keys on the token subject with a budget per role
+@Component
+public class UserRateLimiter extends OncePerRequestFilter {
+    private static final Map<RoleType, Long> DEFAULT_PER_MINUTE = Map.of(
+            RoleType.USER, 120L,
+            RoleType.MODERATOR, 300L,
+            RoleType.ADMIN, 600L,
+            RoleType.SUPER_ADMIN, 600L
+    );
+
+    private final BucketStore buckets;
+    private final RateLimitPolicies policies;
+    private final Map<RoleType, BucketConfiguration> roleBudgets = new EnumMap<>(RoleType.class);
+
+    public UserRateLimiter(BucketStore buckets, RateLimitPolicies policies, Environment environment) {
+        this.buckets = buckets;
+        this.policies = policies;
+
+        for (RoleType role : RoleType.values()) {
+            long perMinute = environment.getProperty("app.rate-limit.user." + role.name().toLowerCase() + "-per-minute", Long.class, DEFAULT_PER_MINUTE.get(role));
+            roleBudgets.put(role, BucketConfiguration.builder()
+                    .addLimit(Bandwidth.builder().capacity(perMinute).refillGreedy(perMinute, Duration.ofMinutes(1)).build())
+                    .build());
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String subject = authentication.getName();
+        RoleType role = role(authentication);
+
+        ConsumptionProbe probe = buckets.resolve("user:" + role + ":" + subject, () -> roleBudgets.get(role)).tryConsumeAndReturnRemaining(1);
+        if (!probe.isConsumed()) {
+            RateLimiter.reject(response, probe);
+            return;
+        }
+
+        RateLimitPolicies.Match policy = policies.match(request.getMethod(), request.getServletPath());
+        if (policy != null && policy.keyType() == RateLimitKeyType.USER) {
+            Bucket routeBucket = buckets.resolve(policy.id() + ":user:" + subject, policy::configuration);
+            ConsumptionProbe routeProbe = routeBucket.tryConsumeAndReturnRemaining(1);
+            if (!routeProbe.isConsumed()) {
+                RateLimiter.reject(response, routeProbe);
+                return;
+            }
+        }
+
+        response.setHeader("X-Rate-Limit-User-Remaining", String.valueOf(probe.getRemainingTokens()));
+        filterChain.doFilter(request, response);
+    }
+
+    //highest role among the granted authorities, USER when none match
+    static RoleType role(Authentication authentication) {
+        RoleType role = RoleType.USER;
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            String name = authority.getAuthority();
+            if (name == null || !name.startsWith("ROLE_")) continue;
+
+            try {
+                RoleType candidate = RoleType.valueOf(name.substring(5));
+                if (candidate.ordinal() > role.ordinal()) role = candidate;
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return role;
+    }
+}
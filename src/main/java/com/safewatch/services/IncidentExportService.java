@@ -0,0 +1,45 @@
+package com.safewatch.services;
+
+import com.safewatch.DTOs.IncidentRowDTO;
+import com.safewatch.repositories.IncidentRepository;
+import com.safewatch.util.reportRelated.ExportFormat;
+import com.safewatch.util.reportRelated.IncidentExportWriter;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+//streams every report straight from the cursor to the response, the read-only transaction keeps the cursor open
+@Service
+@RequiredArgsConstructor
+public class IncidentExportService {
+    private final IncidentRepository incidentRepository;
+    private final JsonMapper jsonMapper;
+    private final Logger logger = LoggerFactory.getLogger(IncidentExportService.class);
+
+    @Transactional(readOnly = true)
+    public long exportReports(ExportFormat format, OutputStream out) {
+        logger.info("Exporting incident reports, format={}", format);
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        IncidentExportWriter exportWriter = new IncidentExportWriter(format, writer, jsonMapper);
+
+        exportWriter.begin();
+        try (Stream<IncidentRowDTO> rows = incidentRepository.streamAllForExport()) {
+            rows.forEach(exportWriter::write);
+        }
+        long exported = exportWriter.end();
+
+        logger.info("Exported incident reports, format={}, rows={}", format, exported);
+        return exported;
+    }
+}
@@ -1,6 +1,9 @@
 package com.safewatch.services;
 
+import com.safewatch.DTOs.BulkTransitionResultDTO;
 import com.safewatch.DTOs.IncidentDTO;
+import com.safewatch.DTOs.IncidentRowDTO;
+import com.safewatch.DTOs.ModerationDetailDTO;
 import com.safewatch.exceptions.ConcurrentUpdateException;
 import com.safewatch.exceptions.IncidentNotFoundException;
 import com.safewatch.models.User;
@@ -10,20 +13,31 @@ import com.safewatch.models.Status;
 import com.safewatch.repositories.CurrentUserRepository;
 import com.safewatch.repositories.IncidentRepository;
 import com.safewatch.util.HelperUtility;
+import com.safewatch.util.reportRelated.BulkTransitionRequest;
 import com.safewatch.util.reportRelated.IncidentModerationPolicy;
 import com.safewatch.util.reportRelated.StatusTransition;
+import com.safewatch.util.reportRelated.TransitionOutcome;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.jspecify.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -31,18 +45,45 @@ import java.util.List;
 public class IncidentModerationService implements IncidentModerationPolicy {
     private final IncidentRepository incidentRepository;
     private final CurrentUserRepository userRepository;
+    private static final int MAX_CLAIM = 50;
+
+    @Value("${app.moderation.claim-lease:PT10M}")
+    private Duration claimLease;
+
     private final Logger logger = LoggerFactory.getLogger(IncidentModerationService.class);
 
     private String mask(String email){
         return email.replaceAll("(^.).*(@.*$)", "$1***$2");
     }
 
-    public @Nullable List<IncidentDTO> getAllReports() {
-        return HelperUtility.convertToDTO(incidentRepository.findAll());
+    //hands out the next PENDING/FLAGGED reports nobody else holds, the moderator's own live claims are renewed
+    public List<IncidentRowDTO> claimNext(String moderatorEmail, int count) {
+        User moderator = loadModerator(moderatorEmail);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Long> ids = incidentRepository.lockClaimable(moderator.getUserID(), now, Math.clamp(count, 1, MAX_CLAIM));
+        if (ids.isEmpty()) return List.of();
+
+        incidentRepository.claim(ids, moderator, now.plus(claimLease));
+
+        Map<Long, IncidentRowDTO> rows = incidentRepository.findRowsByIds(ids).stream()
+                .collect(Collectors.toMap(IncidentRowDTO::incidentId, Function.identity()));
+
+        logger.info("Moderation queue claim: moderatorID={}, claimed={}", moderator.getUserID(), ids.size());
+        return ids.stream().map(rows::get).toList();
+    }
+
+    public int releaseClaims(String moderatorEmail, List<Long> ids) {
+        if (ids.isEmpty()) return 0;
+        User moderator = loadModerator(moderatorEmail);
+
+        int released = incidentRepository.release(ids, moderator);
+        logger.info("Moderation queue release: moderatorID={}, released={}", moderator.getUserID(), released);
+        return released;
     }
 
-    public @Nullable IncidentDTO getReportById(Long reportId) {
-        return HelperUtility.convertToDTO(incidentRepository.findById(reportId).orElseThrow(() -> new IncidentNotFoundException("Incident of id " + reportId + ", not found")));
+    public ModerationDetailDTO getReportById(Long reportId) {
+        return ModerationDetailDTO.from(incidentRepository.findWithReviewerByIncidentId(reportId).orElseThrow(() -> new IncidentNotFoundException("Incident of id " + reportId + ", not found")));
     }
 
     public @Nullable String deleteReportById(String adminEmail,Long reportId) {
@@ -100,6 +141,19 @@ public class IncidentModerationService implements IncidentModerationPolicy {
             User admin = userRepository.findByEmail(adminEmail)
                     .orElseThrow(() -> new UsernameNotFoundException("Admin not found"));
 
+            RoleType role = admin.getUserRole().getRoleName();
+            if (!StatusTransition.isAllowed(oldStatus, target, role)) {
+                logger.warn("Access denied: transition to {} requires {}, userID={}", target, StatusTransition.requiredRole(target), admin.getUserID());
+                throw new AccessDeniedException("Transition to " + target + " requires " + StatusTransition.requiredRole(target));
+            }
+
+            if (isClaimedByOther(incident, admin)) {
+                logger.warn("Transition on a claimed report: reportId={}, by={}", reportId, admin.getUserID());
+                throw new ConcurrentUpdateException("Report is claimed by another moderator");
+            }
+
+            incident.setClaimedBy(null);
+            incident.setClaimedUntil(null);
 
             incident.setStatus(target);
             incident.setReviewedBy(admin);
@@ -114,4 +168,72 @@ public class IncidentModerationService implements IncidentModerationPolicy {
             throw new ConcurrentUpdateException("Report was modified by another moderator");
         }
     }
+
+    //every item is checked against its locked row, the accepted ones go out as one UPDATE per (target, comment) pair
+    public List<BulkTransitionResultDTO> bulkTransition(String moderatorEmail, List<BulkTransitionRequest.Item> items) {
+        User moderator = loadModerator(moderatorEmail);
+        RoleType role = moderator.getUserRole().getRoleName();
+        LocalDateTime now = LocalDateTime.now();
+
+        Set<Long> ids = items.stream().map(BulkTransitionRequest.Item::incidentId).collect(Collectors.toSet());
+        Map<Long, Incident> locked = incidentRepository.lockAllById(ids).stream()
+                .collect(Collectors.toMap(Incident::getIncidentId, Function.identity()));
+
+        List<BulkTransitionResultDTO> results = new ArrayList<>(items.size());
+        Map<TransitionGroup, List<Long>> groups = new LinkedHashMap<>();
+        Set<Long> seen = new HashSet<>();
+
+        for (BulkTransitionRequest.Item item : items) {
+            Incident incident = locked.get(item.incidentId());
+            if (incident == null) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.NOT_FOUND, null, null, "Incident not found"));
+                continue;
+            }
+
+            Status status = incident.getStatus();
+            long version = incident.getVersion();
+
+            if (!seen.add(item.incidentId())) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.CONFLICT, status, version, "Incident appears more than once"));
+            } else if (version != item.version()) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.CONFLICT, status, version, "Report was modified by another moderator"));
+            } else if (isClaimedByOther(incident, moderator)) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.CONFLICT, status, version, "Report is claimed by another moderator"));
+            } else if (!StatusTransition.isAllowed(status, item.target())) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.ILLEGAL, status, version, "Illegal transition : " + status + " -> " + item.target()));
+            } else if (!StatusTransition.isAllowed(status, item.target(), role)) {
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.ILLEGAL, status, version, "Transition to " + item.target() + " requires " + StatusTransition.requiredRole(item.target())));
+            } else {
+                groups.computeIfAbsent(new TransitionGroup(item.target(), item.comment()), g -> new ArrayList<>()).add(item.incidentId());
+                results.add(new BulkTransitionResultDTO(item.incidentId(), TransitionOutcome.APPLIED, item.target(), version + 1, null));
+            }
+        }
+
+        groups.forEach((group, groupIds) -> incidentRepository.applyTransition(groupIds, group.target(), moderator, now, group.comment()));
+
+        logger.info("Bulk transition: by={}, requested={}, applied={}, updates={}", moderator.getUserID(), items.size(),
+                groups.values().stream().mapToInt(List::size).sum(), groups.size());
+        return results;
+    }
+
+    private record TransitionGroup(Status target, String comment) {
+    }
+
+    //queue and bulk calls are moderation work, plain users must not be able to hold claims
+    private User loadModerator(String moderatorEmail) {
+        User moderator = userRepository.findByEmail(moderatorEmail).orElseThrow(() -> new UsernameNotFoundException("Moderator not found"));
+
+        if (moderator.getUserRole().getRoleName().compareTo(RoleType.MODERATOR) < 0) {
+            logger.warn("Access denied: not a moderator, userID={}", moderator.getUserID());
+            throw new AccessDeniedException("Not a moderator");
+        }
+        return moderator;
+    }
+
+    private boolean isClaimedByOther(Incident incident, User moderator) {
+        return incident.getClaimedBy() != null
+                && incident.getClaimedUntil() != null
+                && incident.getClaimedUntil().isAfter(LocalDateTime.now())
+                && !incident.getClaimedBy().getUserID().equals(moderator.getUserID());
+    }
 }
@@ -1,17 +1,21 @@
 package com.safewatch.services;
 
+import com.safewatch.DTOs.CursorPageDTO;
 import com.safewatch.DTOs.IncidentDTO;
+import com.safewatch.DTOs.IncidentRowDTO;
 import com.safewatch.exceptions.IncidentNotFoundException;
 import com.safewatch.exceptions.InvalidIncidentException;
 import com.safewatch.models.*;
 import com.safewatch.repositories.CurrentUserRepository;
 import com.safewatch.repositories.IncidentRepository;
 import com.safewatch.util.HelperUtility;
+import com.safewatch.util.reportRelated.IncidentCursor;
 import com.safewatch.util.reportRelated.ReportRequest;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -22,11 +26,13 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BiFunction;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class IncidentService {
+    private static final int MAX_PAGE_SIZE = 100;
     private final IncidentRepository incidentRepository;
     private final CurrentUserRepository userRepository;
     private final Logger logger = LoggerFactory.getLogger(IncidentService.class);
@@ -78,7 +84,7 @@ public class IncidentService {
         logger.info("Attempting to retrieve all incident reports");
 
         Pageable pageable = PageRequest.of(0, 10, Sort.by("reportedAt").ascending());
-        return incidentRepository.findAll(pageable).map(HelperUtility::convertToDTO);
+        return incidentRepository.findAllProjected(pageable);
     }
 
     public IncidentDTO getReportById(Long reportId) {
@@ -93,7 +99,7 @@ public class IncidentService {
 
         Incident incident = incidentRepository.findById(reportId).orElseThrow(() -> new IncidentNotFoundException("Incident of id " + reportId + ", not found"));
 
-        if (!incident.getReportedBy().getEmail().equals(user.getEmail())) {
+        if (!incident.getReportedBy().getUserID().equals(user.getUserID())) {
             throw new InvalidIncidentException("Unable to update incident report.");
         }
 
@@ -109,7 +115,7 @@ public class IncidentService {
 
         Incident incident = incidentRepository.findById(reportId).orElseThrow(() -> new IncidentNotFoundException("Incident of id " + reportId + ", not found"));
 
-        if (!incident.getReportedBy().getEmail().equals(user.getEmail())) {
+        if (!incident.getReportedBy().getUserID().equals(user.getUserID())) {
             throw new InvalidIncidentException("Unable to update incident report.");
         }
 
@@ -143,9 +149,7 @@ public class IncidentService {
             throw new IllegalStateException("No such category of type : " + category);
         }
 
-        return incidentRepository
-                .findByIncidentCategory(categoryEnum, pageable)
-                .map(HelperUtility::convertToDTO);
+        return incidentRepository.findProjectedByIncidentCategory(categoryEnum, pageable);
     }
 
     public Page<IncidentDTO> filterByStatus(String status, int page, int size) {
@@ -160,7 +164,7 @@ public class IncidentService {
             throw new IllegalArgumentException("No such status of type " + status);
         }
 
-        return incidentRepository.findByStatus(statusEnum, pageable).map(HelperUtility::convertToDTO);
+        return incidentRepository.findProjectedByStatus(statusEnum, pageable);
     }
 
     public Page<IncidentDTO> filterBySeverity(String severity, int page, int size) {
@@ -175,6 +179,69 @@ public class IncidentService {
             throw new IllegalArgumentException("No such severity of type " + severity);
         }
 
-        return incidentRepository.findBySeverity(severityEnum, pageable).map(HelperUtility::convertToDTO);
+        return incidentRepository.findProjectedBySeverity(severityEnum, pageable);
+    }
+
+    public CursorPageDTO<IncidentDTO> scrollAllReports(String cursor, int size) {
+        logger.info("Scrolling incident reports");
+        return scroll(cursor, size, (after, limit) ->
+                incidentRepository.findAllAfter(after.reportedAt(), after.incidentId(), limit));
+    }
+
+    public CursorPageDTO<IncidentDTO> scrollByCategory(String category, String cursor, int size) {
+        logger.info("Scrolling incident reports by category, category={}", category);
+
+        IncidentCategory categoryEnum;
+        try {
+            categoryEnum = IncidentCategory.valueOf(category.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("No such category of type : " + category);
+        }
+
+        return scroll(cursor, size, (after, limit) ->
+                incidentRepository.findByIncidentCategoryAfter(categoryEnum, after.reportedAt(), after.incidentId(), limit));
+    }
+
+    public CursorPageDTO<IncidentDTO> scrollByStatus(String status, String cursor, int size) {
+        logger.info("Scrolling incident reports by status, status={}", status);
+
+        Status statusEnum;
+        try {
+            statusEnum = Status.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("No such status of type " + status);
+        }
+
+        return scroll(cursor, size, (after, limit) ->
+                incidentRepository.findByStatusAfter(statusEnum, after.reportedAt(), after.incidentId(), limit));
+    }
+
+    public CursorPageDTO<IncidentDTO> scrollBySeverity(String severity, String cursor, int size) {
+        logger.info("Scrolling incident reports by severity, severity={}", severity);
+
+        Severity severityEnum;
+        try {
+            severityEnum = Severity.valueOf(severity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("No such severity of type " + severity);
+        }
+
+        return scroll(cursor, size, (after, limit) ->
+                incidentRepository.findBySeverityAfter(severityEnum, after.reportedAt(), after.incidentId(), limit));
+    }
+
+    //fetches one extra row to learn whether another page exists, no count query needed
+    private CursorPageDTO<IncidentDTO> scroll(String cursor, int size, BiFunction<IncidentCursor, Limit, List<IncidentRowDTO>> query) {
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        List<IncidentRowDTO> rows = query.apply(IncidentCursor.decode(cursor), Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            IncidentRowDTO last = rows.get(pageSize - 1);
+            nextCursor = new IncidentCursor(last.reportedAt(), last.incidentId()).encode();
+        }
+
+        return new CursorPageDTO<>(rows.stream().map(IncidentRowDTO::toDTO).toList(), nextCursor);
     }
 }
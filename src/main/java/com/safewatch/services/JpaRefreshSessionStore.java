@@ -0,0 +1,69 @@
+package com.safewatch.services;
+
+import com.safewatch.models.RefreshToken;
+import com.safewatch.repositories.RefreshTokenRepo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+//every call goes straight to refresh_tokens in the caller's transaction
+@Component
+@ConditionalOnProperty(name = "app.sessions.write-behind.enabled", havingValue = "false", matchIfMissing = true)
+public class JpaRefreshSessionStore implements RefreshSessionStore {
+    private final RefreshTokenRepo tokenRepo;
+
+    public JpaRefreshSessionStore(RefreshTokenRepo tokenRepo) {
+        this.tokenRepo = tokenRepo;
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        return tokenRepo.findByTokenHash(tokenHash);
+    }
+
+    @Override
+    public long countActive(Long userId, Instant now) {
+        return tokenRepo.countActive(userId, now);
+    }
+
+    @Override
+    public List<RefreshToken> findOldestActive(Long userId, Instant now, int limit) {
+        return tokenRepo.findOldestToken(userId, now, PageRequest.of(0, limit));
+    }
+
+    @Override
+    public void save(RefreshToken token) {
+        tokenRepo.save(token);
+    }
+
+    @Override
+    public void revoke(List<RefreshToken> tokens, Instant now) {
+        if (tokens.isEmpty()) return;
+        tokenRepo.revokeByIds(tokens.stream().map(RefreshToken::getId).toList(), now);
+    }
+
+    @Override
+    public boolean revokeIfActive(RefreshToken token, Instant now) {
+        return tokenRepo.revokeByIds(List.of(token.getId()), now) == 1;
+    }
+
+    @Override
+    public int revokeSession(Long userId, UUID sessionId, Instant now) {
+        return tokenRepo.revokeBySessionId(sessionId, now);
+    }
+
+    @Override
+    public int revokeUser(Long userId, Instant now) {
+        return tokenRepo.revokeByUserId(userId, now);
+    }
+
+    @Override
+    public int revokeUserAgent(Long userId, String userAgent, Instant now) {
+        return tokenRepo.revokeByUserIdAndUserAgent(userId, userAgent, now);
+    }
+}
@@ -1,6 +1,9 @@
 package com.safewatch.services;
 
+import com.safewatch.models.RoleType;
+import com.safewatch.security.UserPrincipal;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,28 +12,28 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
-import java.security.NoSuchAlgorithmException;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
-    private final String secretKey;
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String TOKEN_VERSION_CLAIM = "ver";
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final VerifiedTokenCache tokenCache;
     private final long expiration;
 
-    public JwtService(@Value("${jwt.secret}") String secretKey,@Value("${jwt.expiration-ms}") long expiration) {
-        this.secretKey = secretKey;
+    public JwtService(@Value("${jwt.secret}") String secretKey,@Value("${jwt.expiration-ms}") long expiration, VerifiedTokenCache tokenCache) {
+        this.key = Keys.hmacShaKeyFor(Base64.getDecoder().decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.tokenCache = tokenCache;
         this.expiration = expiration;
     }
 
-    private SecretKey getKey() {
-        byte[] keyBytes = Base64.getDecoder().decode(this.secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
     public String generateToken(UserDetails userDetails) {
         List<Map<String, String>> authorities = userDetails.getAuthorities().stream()
                 .map(auth -> {
@@ -39,55 +42,84 @@ public class JwtService {
                     return authMap;
                 }).toList();
 
+        Map<String, Object> identity = new HashMap<>();
+        if (userDetails instanceof UserPrincipal principal) {
+            identity.put(USER_ID_CLAIM, principal.getUserId());
+            identity.put(TOKEN_VERSION_CLAIM, principal.getTokenVersion());
+        }
+
         return Jwts.builder()
                 .claims()
                 .add("authorities", authorities)
+                .add(identity)
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
                 .and()
-                .signWith(getKey())
+                .signWith(key)
                 .compact();
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    //verifies signature and expiry once, callers reuse the returned claims
+    public Claims extractAllClaims(String token) {
+        return tokenCache.get(token, this::verify);
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsTFunction) {
-        final Claims claim = extractAllClaims(token);
-        return claimsTFunction.apply(claim);
+    private Claims verify(String token) {
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        return extractAllClaims(token).getSubject();
     }
 
-    private boolean isTokenExpired(String token) {
-        return expiration(token).before(new Date());
+    private boolean isTokenExpired(Claims claims) {
+        return claims.getExpiration().before(new Date());
     }
 
-    private Date expiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean validateToken(UserDetails userDetails, Claims claims) {
+        final String username = claims.getSubject();
+        return (username.equals(userDetails.getUsername()) && !isTokenExpired(claims));
     }
 
     public boolean validateToken(UserDetails userDetails, String token) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(userDetails, extractAllClaims(token));
     }
 
     public Collection<? extends GrantedAuthority> extractToken(String token) {
-        Claims claims = extractAllClaims(token);
-        List<Map<String, String>> authorities = claims.get("authorities", List.class);
-
-        if (authorities == null) return Collections.emptyList();
-
-        return authorities.stream()
+        return authorities(extractAllClaims(token)).stream()
                 .map(auth -> new SimpleGrantedAuthority(auth.get("authority")))
                 .collect(Collectors.toList());
     }
+
+    public Integer extractTokenVersion(Claims claims) {
+        return claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+    }
+
+    //returns null when the token predates the identity claims and the caller has to load the user instead
+    public UserPrincipal principalFrom(Claims claims) {
+        Long userId = claims.get(USER_ID_CLAIM, Long.class);
+        Integer version = extractTokenVersion(claims);
+        String subject = claims.getSubject();
+
+        if (userId == null || version == null || subject == null) return null;
+
+        RoleType role = null;
+        for (Map<String, String> auth : authorities(claims)) {
+            String authority = auth.get("authority");
+            if (authority != null && authority.startsWith(ROLE_PREFIX)) {
+                role = RoleType.valueOf(authority.substring(ROLE_PREFIX.length()));
+                break;
+            }
+        }
+        if (role == null) return null;
+
+        return UserPrincipal.fromClaims(userId, subject, role, version);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, String>> authorities(Claims claims) {
+        List<Map<String, String>> authorities = claims.get("authorities", List.class);
+        return authorities == null ? Collections.emptyList() : authorities;
+    }
 }
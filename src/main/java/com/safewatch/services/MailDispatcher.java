@@ -0,0 +1,146 @@
+package com.safewatch.services;
+
+import com.safewatch.models.MailOutbox;
+import com.safewatch.models.MailStatus;
+import com.safewatch.repositories.MailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@Service
+public class MailDispatcher {
+    private final MailOutboxRepository outboxRepository;
+    private final MailService mailService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Duration sendTimeout;
+    private final Logger logger = LoggerFactory.getLogger(MailDispatcher.class);
+
+    public MailDispatcher(MailOutboxRepository outboxRepository, MailService mailService, TransactionTemplate transactionTemplate,
+                          @Value("${app.mail.outbox.concurrency:4}") int concurrency,
+                          @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                          @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                          @Value("${app.mail.outbox.base-backoff:PT30S}") Duration baseBackoff,
+                          @Value("${app.mail.outbox.max-backoff:PT1H}") Duration maxBackoff,
+                          @Value("${app.mail.outbox.lease:PT5M}") Duration lease,
+                          @Value("${app.mail.outbox.send-timeout:PT30S}") Duration sendTimeout,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.outboxRepository = outboxRepository;
+        this.mailService = mailService;
+        this.transactionTemplate = transactionTemplate;
+        //a send still running at the deadline is bounded by the SMTP socket timeouts, which sit below send-timeout,
+        //so a lease of twice send-timeout cannot run out and hand the row to another poll while it is in flight
+        if (lease.compareTo(sendTimeout.multipliedBy(2)) <= 0) {
+            throw new IllegalStateException("app.mail.outbox.lease (" + lease + ") must be longer than twice app.mail.outbox.send-timeout (" + sendTimeout + ")");
+        }
+        //fixed size either way, so SMTP concurrency stays bounded when the workers are virtual threads
+        ThreadFactory threads = virtualThreads ? Thread.ofVirtual().name("mail-dispatch-", 0).factory() : Thread.ofPlatform().name("mail-dispatch-", 0).factory();
+        this.executor = Executors.newFixedThreadPool(concurrency, threads);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.sendTimeout = sendTimeout;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatch() {
+        List<MailOutbox> batch = claim();
+        if (batch.isEmpty()) return;
+
+        List<Future<?>> sends = new ArrayList<>(batch.size());
+        for (MailOutbox mail : batch) {
+            sends.add(executor.submit(() -> deliver(mail)));
+        }
+
+        //one deadline for the whole batch, a hung SMTP session must not hold the scheduler thread
+        long deadline = System.nanoTime() + sendTimeout.toNanos();
+        for (Future<?> send : sends) {
+            try {
+                send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                logger.error("Mail dispatch task failed", e.getCause());
+            } catch (TimeoutException e) {
+                //interrupting only stops a queued send, one already on the wire ends when its socket timeout fires
+                send.cancel(true);
+                logger.warn("Mail dispatch timed out after {} ms, lease left to expire", sendTimeout.toMillis());
+            }
+        }
+    }
+
+    //leasing pushes next_attempt_at forward so other nodes skip these rows while we send them
+    private List<MailOutbox> claim() {
+        List<MailOutbox> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Long> ids = outboxRepository.lockDueIds(now, batchSize);
+            if (ids.isEmpty()) return List.<MailOutbox>of();
+
+            outboxRepository.lease(ids, now.plus(lease));
+            return outboxRepository.findAllById(ids);
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    private void deliver(MailOutbox mail) {
+        try {
+            mailService.deliver(mail);
+            transactionTemplate.executeWithoutResult(status -> outboxRepository.markSent(mail.getId(), MailStatus.SENT, Instant.now()));
+        } catch (Exception e) {
+            int attempts = mail.getAttempts() + 1;
+            String error = truncate(e.getMessage());
+
+            if (attempts >= maxAttempts) {
+                logger.error("Mail dead-lettered after {} attempts: mailId={}", attempts, mail.getId(), e);
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.markDead(mail.getId(), attempts, error));
+            } else {
+                Instant next = Instant.now().plus(backoff(attempts));
+                logger.warn("Mail delivery failed, retrying: mailId={}, attempt={}, nextAttemptAt={}", mail.getId(), attempts, next);
+                transactionTemplate.executeWithoutResult(status -> outboxRepository.markFailed(mail.getId(), MailStatus.PENDING, attempts, next, error));
+            }
+        }
+    }
+
+    //exponential backoff with up to 20% jitter so retries from a failed burst spread out
+    private Duration backoff(int attempts) {
+        long base = baseBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    private String truncate(String message) {
+        if (message == null) return null;
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
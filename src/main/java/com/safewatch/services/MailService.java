@@ -1,5 +1,7 @@
 package com.safewatch.services;
 
+import com.safewatch.models.MailOutbox;
+import com.safewatch.repositories.MailOutboxRepository;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
@@ -8,20 +10,31 @@ import org.springframework.stereotype.Component;
 @Component
 public class MailService {
     private final JavaMailSender mailSender;
+    private final MailOutboxRepository outboxRepository;
 
     @Value("${spring.mail.username}")
     private String mailFrom;
 
-    public MailService(JavaMailSender mailSender) {
+    public MailService(JavaMailSender mailSender, MailOutboxRepository outboxRepository) {
         this.mailSender = mailSender;
+        this.outboxRepository = outboxRepository;
     }
 
+    //queued in the caller's transaction, MailDispatcher delivers it once that commits
     public void sendMail(String to, String subject, String message) {
+        MailOutbox mail = new MailOutbox();
+        mail.setRecipient(to);
+        mail.setSubject(subject);
+        mail.setBody(message);
+        outboxRepository.save(mail);
+    }
+
+    void deliver(MailOutbox mail) {
         SimpleMailMessage mailMessage = new SimpleMailMessage();
         mailMessage.setFrom(mailFrom);
-        mailMessage.setTo(to);
-        mailMessage.setSubject(subject);
-        mailMessage.setText(message);
+        mailMessage.setTo(mail.getRecipient());
+        mailMessage.setSubject(mail.getSubject());
+        mailMessage.setText(mail.getBody());
         mailSender.send(mailMessage);
     }
 
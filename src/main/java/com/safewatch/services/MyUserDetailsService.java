@@ -1,23 +1,69 @@
 package com.safewatch.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.safewatch.models.User;
 import com.safewatch.repositories.CurrentUserRepository;
 import com.safewatch.security.UserPrincipal;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 
 @Service
-@RequiredArgsConstructor
-public class MyUserDetailsService implements UserDetailsService {
+public class MyUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
     private final CurrentUserRepository currentUserRepository;
+    private final Cache<String, UserPrincipal> principals;
+
+    public MyUserDetailsService(CurrentUserRepository currentUserRepository, MeterRegistry meterRegistry, @Value("${app.principal-cache.ttl:PT5M}") Duration ttl, @Value("${app.principal-cache.max-size:10000}") long maxSize) {
+        this.currentUserRepository = currentUserRepository;
+        this.principals = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "user.principals");
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = currentUserRepository.findByEmail(username).orElseThrow();
+        return principals.get(username, email -> {
+            User user = currentUserRepository.findByEmail(email).orElseThrow();
+            return new UserPrincipal(user);
+        });
+    }
 
+    //called by DaoAuthenticationProvider after a login whose stored hash needs a cost or algorithm upgrade
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = currentUserRepository.findByEmail(userDetails.getUsername()).orElseThrow();
+        user.setPassword(newPassword);
+        currentUserRepository.save(user);
+        evict(user.getEmail());
         return new UserPrincipal(user);
     }
+
+    //evicts once the surrounding transaction commits so a concurrent load can't re-cache the old row
+    public void evict(String email) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(email);
+                }
+            });
+        }
+        principals.invalidate(email);
+    }
 }
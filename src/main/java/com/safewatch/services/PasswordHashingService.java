@@ -0,0 +1,146 @@
+package com.safewatch.services;
+
+import com.safewatch.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+//the single PasswordEncoder, BCrypt work runs on a bounded pool so login bursts queue instead of taking every core
+@Service
+public class PasswordHashingService implements PasswordEncoder {
+    private static final int MAX_STRENGTH = 16;
+    private static final Pattern BCRYPT = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}$");
+
+    private final int minStrength;
+    private final int strength;
+    private final boolean allowDowngrade;
+    private final BCryptPasswordEncoder delegate;
+    private final PasswordEncoder legacy = PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    public PasswordHashingService(MeterRegistry meterRegistry,
+                                  @Value("${app.password.bcrypt-strength:0}") int configuredStrength,
+                                  //production cost, neither calibration on a fast host nor a configured strength goes below it
+                                  @Value("${app.password.min-strength:12}") int minStrength,
+                                  @Value("${app.password.target-hash-ms:250}") long targetHashMs,
+                                  @Value("${app.password.allow-cost-downgrade:false}") boolean allowDowngrade,
+                                  @Value("${app.password.pool-size:0}") int poolSize,
+                                  @Value("${app.password.queue-capacity:200}") int queueCapacity,
+                                  @Value("${app.password.timeout:PT5S}") Duration timeout) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+        this.minStrength = minStrength;
+        this.strength = Math.max(minStrength, configuredStrength > 0 ? configuredStrength : calibrate(targetHashMs));
+        this.allowDowngrade = allowDowngrade;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("bcrypt-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.timeoutMs = timeout.toMillis();
+
+        this.encodeTimer = Timer.builder("password.hash").tag("operation", "encode").register(meterRegistry);
+        this.matchTimer = Timer.builder("password.hash").tag("operation", "matches").register(meterRegistry);
+        Gauge.builder("password.hash.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("password.hash.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+
+        logger.info("Password hashing pool started: threads={}, queueCapacity={}, strength={}", threads, queueCapacity, strength);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    //{id}-prefixed hashes come from other algorithms and are checked by Spring's delegating encoder
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordEncoder encoder = isLegacy(encodedPassword) ? legacy : delegate;
+        return run(() -> matchTimer.record(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    //true means DaoAuthenticationProvider rehashes the password with the current cost after a successful login
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || isLegacy(encodedPassword)) return true;
+
+        Matcher matcher = BCRYPT.matcher(encodedPassword);
+        if (!matcher.matches()) return true;
+
+        int storedStrength = Integer.parseInt(matcher.group(1));
+        return storedStrength < strength || (allowDowngrade && storedStrength > strength);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    private boolean isLegacy(String encodedPassword) {
+        return encodedPassword != null && encodedPassword.startsWith("{");
+    }
+
+    //highest cost whose hash stays within the target on this host, never below minStrength
+    private int calibrate(long targetHashMs) {
+        new BCryptPasswordEncoder(4).encode("warm-up");
+
+        int chosen = minStrength;
+        for (int cost = minStrength; cost <= MAX_STRENGTH; cost++) {
+            BCryptPasswordEncoder candidate = new BCryptPasswordEncoder(cost);
+            long start = System.nanoTime();
+            candidate.encode("calibration-sample");
+            long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            logger.info("BCrypt calibration: cost={}, elapsedMs={}", cost, elapsedMs);
+            if (elapsedMs > targetHashMs) break;
+            chosen = cost;
+        }
+        return chosen;
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Password hashing queue full, rejecting request");
+            throw new PasswordHashingUnavailableException("Password service busy, try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            logger.warn("Password hashing timed out after {} ms", timeoutMs);
+            throw new PasswordHashingUnavailableException("Password service busy, try again shortly");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Password hashing interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+}
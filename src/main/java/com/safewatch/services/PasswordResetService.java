@@ -12,7 +12,7 @@ import com.safewatch.util.tokenReset.PasswordTokenResponse;
 import com.safewatch.util.tokenReset.TokenUntil;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
@@ -22,7 +22,8 @@ import java.time.OffsetDateTime;
 public class PasswordResetService {
     private final CurrentUserRepository userRepository;
     private final VerificationTokenRepository tokenRepository;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    private final MyUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
 
     private static final int EXP_MINUTES = 15;
 
@@ -85,11 +86,13 @@ public class PasswordResetService {
         user.setLockUntil(null);
         user.setLocked(false);
         user.setCredentialsExpired(false);
+        user.setTokenVersion(user.getTokenVersion() + 1);
 
         verificationToken.setUsed(true);
 
         userRepository.save(user);
         tokenRepository.save(verificationToken);
+        userDetailsService.evict(user.getEmail());
 
         return "Password reset successful";
     }
@@ -0,0 +1,33 @@
+package com.safewatch.services;
+
+import com.safewatch.models.RefreshToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface RefreshSessionStore {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    long countActive(Long userId, Instant now);
+
+    List<RefreshToken> findOldestActive(Long userId, Instant now, int limit);
+
+    //inserts new tokens and writes back changes to existing ones
+    void save(RefreshToken token);
+
+    void revoke(List<RefreshToken> tokens, Instant now);
+
+    //false when the token was already revoked, which the refresh flow treats as reuse
+    boolean revokeIfActive(RefreshToken token, Instant now);
+
+    //set-based revocations, each is a single UPDATE and returns the number of sessions revoked
+    //the owner is passed so an in-memory store only has to look at that user's sessions
+    int revokeSession(Long userId, UUID sessionId, Instant now);
+
+    int revokeUser(Long userId, Instant now);
+
+    int revokeUserAgent(Long userId, String userAgent, Instant now);
+}
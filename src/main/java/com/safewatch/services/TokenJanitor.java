@@ -0,0 +1,148 @@
+package com.safewatch.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+//deletes expired tokens, and finished outbox mail that carried them, in short autocommitted chunks
+//so no run holds locks or writes WAL in one burst
+@Component
+public class TokenJanitor {
+    private static final long LOCK_KEY = 0x5AFE_7043L;
+
+    //revoked refresh tokens are kept until they expire, reuse detection needs them until then
+    private static final String VERIFICATION_TOKENS = """
+            delete from verification_token
+             where id in (select id from verification_token
+                           where expires_at < ?
+                           limit ?
+                           for update skip locked)
+            """;
+
+    private static final String REFRESH_TOKENS = """
+            delete from refresh_tokens
+             where id in (select id from refresh_tokens
+                           where expires_at < ?
+                           limit ?
+                           for update skip locked)
+            """;
+
+    //bodies are blanked when a mail is final, the rows themselves only matter for a short audit window
+    private static final String MAIL_OUTBOX = """
+            delete from mail_outbox
+             where id in (select id from mail_outbox
+                           where status in ('SENT', 'DEAD')
+                             and created_at < ?
+                           limit ?
+                           for update skip locked)
+            """;
+
+    private record Purge(String table, String sql, Duration retention) {
+    }
+
+    private final List<Purge> purges;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration timeBudget;
+    private final Duration pause;
+    private final Logger logger = LoggerFactory.getLogger(TokenJanitor.class);
+
+    public TokenJanitor(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                        @Value("${app.tokens.purge.enabled:true}") boolean enabled,
+                        @Value("${app.tokens.purge.batch-size:1000}") int batchSize,
+                        @Value("${app.tokens.purge.grace:PT24H}") Duration grace,
+                        @Value("${app.mail.outbox.retention:P7D}") Duration mailRetention,
+                        @Value("${app.tokens.purge.time-budget:PT30S}") Duration timeBudget,
+                        @Value("${app.tokens.purge.pause:PT0.2S}") Duration pause) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.purges = List.of(
+                new Purge("verification_token", VERIFICATION_TOKENS, grace),
+                new Purge("refresh_tokens", REFRESH_TOKENS, grace),
+                new Purge("mail_outbox", MAIL_OUTBOX, mailRetention));
+        this.timeBudget = timeBudget;
+        this.pause = pause;
+    }
+
+    @Scheduled(cron = "${app.tokens.purge.cron:0 */15 * * * *}")
+    public void purge() {
+        if (!enabled) return;
+        jdbcTemplate.execute((ConnectionCallback<Void>) this::purgeWithLock);
+    }
+
+    //session level advisory lock, taken and released on the connection the deletes run on
+    private Void purgeWithLock(Connection connection) throws SQLException {
+        JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        Boolean locked = session.queryForObject("select pg_try_advisory_lock(?)", Boolean.class, LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            logger.debug("Token purge skipped, another node holds the lock");
+            return null;
+        }
+
+        //each chunk commits on its own
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            purge(session);
+        } finally {
+            session.queryForObject("select pg_advisory_unlock(?)", Boolean.class, LOCK_KEY);
+            connection.setAutoCommit(autoCommit);
+        }
+        return null;
+    }
+
+    private void purge(JdbcTemplate session) {
+        long started = System.nanoTime();
+        long deadline = started + timeBudget.toNanos();
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        for (Purge purge : purges) {
+            String table = purge.table();
+            OffsetDateTime cutoff = now.minus(purge.retention());
+            long purged = 0;
+            int deleted;
+
+            do {
+                deleted = session.update(purge.sql(), cutoff, batchSize);
+                purged += deleted;
+            } while (deleted == batchSize && System.nanoTime() < deadline && pause());
+
+            Counter.builder("tokens.purged").tag("table", table).register(meterRegistry).increment(purged);
+            logger.info("Token purge: table={}, rows={}, elapsedMs={}", table, purged, Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+            if (System.nanoTime() >= deadline) {
+                logger.warn("Token purge stopped at the {} ms time budget, the rest is left for the next run", timeBudget.toMillis());
+                return;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
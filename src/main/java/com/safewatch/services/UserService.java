@@ -6,9 +6,9 @@ import com.safewatch.exceptions.PasswordMismatchException;
 import com.safewatch.exceptions.RoleNotFoundException;
 import com.safewatch.models.*;
 import com.safewatch.repositories.CurrentUserRepository;
-import com.safewatch.repositories.RefreshTokenRepo;
 import com.safewatch.repositories.RoleRepository;
 import com.safewatch.repositories.VerificationTokenRepository;
+import com.safewatch.security.UserPrincipal;
 import com.safewatch.util.HelperUtility;
 import com.safewatch.util.userRelated.LoginResult;
 import com.safewatch.util.userRelated.PasswordUpdateRequest;
@@ -18,7 +18,6 @@ import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -26,7 +25,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -41,25 +40,28 @@ import java.util.UUID;
 public class UserService {
     private final CurrentUserRepository currentUserRepository;
     private final TokenHashingService hashingService;
-    private final RefreshTokenRepo tokenRepo;
+    private final RefreshSessionStore sessionStore;
     private final VerificationTokenRepository verificationTokenRepo;
     private final RoleRepository roleRepository;
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final MailService mailService;
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(12);
+    private final MyUserDetailsService userDetailsService;
+    private final PasswordEncoder passwordEncoder;
     private final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final long refreshExpirationMs;
 
-    public UserService(CurrentUserRepository currentUserRepository, TokenHashingService hashingService, RefreshTokenRepo tokenRepo, VerificationTokenRepository verificationTokenRepo, RoleRepository roleRepository, AuthenticationManager authenticationManager, JwtService jwtService, MailService mailService, @Value("${refresh.expiration-ms}") long refreshExpirationMs) {
+    public UserService(CurrentUserRepository currentUserRepository, TokenHashingService hashingService, RefreshSessionStore sessionStore, VerificationTokenRepository verificationTokenRepo, RoleRepository roleRepository, AuthenticationManager authenticationManager, JwtService jwtService, MailService mailService, MyUserDetailsService userDetailsService, PasswordEncoder passwordEncoder, @Value("${refresh.expiration-ms}") long refreshExpirationMs) {
         this.currentUserRepository = currentUserRepository;
         this.hashingService = hashingService;
-        this.tokenRepo = tokenRepo;
+        this.sessionStore = sessionStore;
         this.verificationTokenRepo = verificationTokenRepo;
         this.roleRepository = roleRepository;
         this.authenticationManager = authenticationManager;
         this.jwtService = jwtService;
         this.mailService = mailService;
+        this.userDetailsService = userDetailsService;
+        this.passwordEncoder = passwordEncoder;
         this.refreshExpirationMs = refreshExpirationMs;
     }
 
@@ -120,18 +122,14 @@ public class UserService {
         final int MAX_SESSIONS = 3;
         Instant now = Instant.now();
 
-        long active = tokenRepo.countActive(userID, now);
+        long active = sessionStore.countActive(userID, now);
 
         if (active >= MAX_SESSIONS) {
             int toRevoke = (int) (active - MAX_SESSIONS + 1);
 
-            List<RefreshToken> oldest = tokenRepo.findOldestToken(userID, now, PageRequest.of(0, toRevoke));
+            List<RefreshToken> oldest = sessionStore.findOldestActive(userID, now, toRevoke);
 
-            List<Long> ids = oldest.stream()
-                    .map(RefreshToken::getId)
-                    .toList();
-
-            tokenRepo.revokeByIds(ids, now);
+            sessionStore.revoke(oldest, now);
         }
 
         String accessToken = jwtService.generateToken(userDetails);
@@ -148,7 +146,7 @@ public class UserService {
         tokenRefresh.setSessionId(UUID.randomUUID());
         tokenRefresh.setCreatedAt(Instant.now());
 
-        tokenRepo.save(tokenRefresh);
+        sessionStore.save(tokenRefresh);
 
         logger.info("login successful {} ", mask(email));
 
@@ -157,26 +155,26 @@ public class UserService {
 
     }
 
+    //a detected reuse throws after revoking the session, and that revocation has to commit
+    @Transactional(dontRollbackOn = ResponseStatusException.class)
     public LoginResult refresh(String refreshToken, String userAgent, String ip) {
         String hash = hashingService.hash(refreshToken);
 
-        RefreshToken currentToken = tokenRepo.findByTokenHash(hash).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
+        RefreshToken currentToken = sessionStore.findByTokenHash(hash).orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED));
 
         if (currentToken.getExpiresAt().isBefore(Instant.now())) {
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Expired refresh token");
         }
 
-        if (currentToken.getRevokedAt() != null) {
-            revokeSession(currentToken.getSessionId());
+        //revoking is conditional, so of two concurrent rotations of the same token one is treated as reuse
+        if (currentToken.getRevokedAt() != null || !sessionStore.revokeIfActive(currentToken, Instant.now())) {
+            revokeSession(currentToken.getUserId(), currentToken.getSessionId());
             throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Token reuse detected");
         }
 
         String newRefreshToken = HelperUtility.generateRefreshToken();
         String hashedRefreshToken = hashingService.hash(newRefreshToken);
 
-        currentToken.setRevokedAt(Instant.now());
-        tokenRepo.save(currentToken);
-
         RefreshToken newToken = new RefreshToken();
         newToken.setUserId(currentToken.getUserId());
         newToken.setUserAgent(userAgent);
@@ -185,31 +183,44 @@ public class UserService {
         newToken.setExpiresAt(Instant.now().plusMillis(refreshExpirationMs));
         newToken.setSessionId(currentToken.getSessionId());
 
-        tokenRepo.save(newToken);
+        sessionStore.save(newToken);
 
         long userId = currentToken.getUserId();
-        UserDetails user = (UserDetails) currentUserRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+        UserDetails user = new UserPrincipal(currentUserRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found.")));
         String accessToken = jwtService.generateToken(user);
 
         return new LoginResult(accessToken, newRefreshToken);
     }
 
-    private void revokeSession(UUID sessionId) {
-        List<RefreshToken> tokenList = tokenRepo.findAllBySessionId(sessionId);
+    private void revokeSession(Long userId, UUID sessionId) {
+        sessionStore.revokeSession(userId, sessionId, Instant.now());
+    }
 
-        for (var token : tokenList) {
-            token.setRevokedAt(Instant.now());
-        }
+    public int logoutEverywhere(Long userId) {
+        User user = currentUserRepository.findById(userId).orElseThrow(() -> new UsernameNotFoundException("User not found."));
+
+        //access tokens already issued stop working on revalidated paths right away and elsewhere at expiry
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        currentUserRepository.save(user);
+        userDetailsService.evict(user.getEmail());
+
+        int revoked = sessionStore.revokeUser(userId, Instant.now());
+        logger.info("Logged out everywhere userId={}, sessionsRevoked={}", userId, revoked);
+        return revoked;
+    }
 
-        tokenRepo.saveAll(tokenList);
+    public int logoutDevice(Long userId, String userAgent) {
+        int revoked = sessionStore.revokeUserAgent(userId, userAgent, Instant.now());
+        logger.info("Logged out device userId={}, sessionsRevoked={}", userId, revoked);
+        return revoked;
     }
 
     public void logout(String refreshToken) {
         String hashedToken = hashingService.hash(refreshToken);
-        tokenRepo.findByTokenHash(hashedToken).ifPresent(t -> {
+        sessionStore.findByTokenHash(hashedToken).ifPresent(t -> {
             t.setExpiresAt(Instant.now().plusMillis(refreshExpirationMs));
             t.setRevokedAt(Instant.now());
-            tokenRepo.save(t);
+            sessionStore.save(t);
         });
     }
 
@@ -237,6 +248,7 @@ public class UserService {
 
         verificationTokenRepo.save(verificationToken);
         currentUserRepository.save(user);
+        userDetailsService.evict(user.getEmail());
         mailService.sendMail(user.getEmail(), "REGISTRATION SUCCESSFUL", "Your email account has been successfully verified, welcome to safewatch.");
     }
 
@@ -259,7 +271,9 @@ public class UserService {
         }
 
         user.setLastPasswordChange(OffsetDateTime.now());
+        user.setTokenVersion(user.getTokenVersion() + 1);
         currentUserRepository.save(user);
+        userDetailsService.evict(email);
         logger.info("Password updated successfully {} ", mask(email));
         mailService.sendMail(user.getEmail(), "PASSWORD UPDATE", "Your password has been changed successfully, if this wasn't you kindly reach out to support at support@safewatch.com.");
         return "Password updated successfully";
@@ -275,7 +289,9 @@ public class UserService {
         user.setSName(updateRequest.sName());
 
         logger.info("User details updated successfully {} ", mask(email));
-        return HelperUtility.convertToDTO(currentUserRepository.save(user));
+        User saved = currentUserRepository.save(user);
+        userDetailsService.evict(email);
+        return HelperUtility.convertToDTO(saved);
     }
 
     public void RequestPasswordReset(String email) {
@@ -326,9 +342,11 @@ public class UserService {
         }
 
         user.setLastPasswordChange(OffsetDateTime.now());
+        user.setTokenVersion(user.getTokenVersion() + 1);
 
         verificationTokenRepo.save(verificationToken);
         currentUserRepository.save(user);
+        userDetailsService.evict(user.getEmail());
 
         mailService.sendMail(user.getEmail(), "SAFEWATCH -password change", "Your account password has been successfully changed, if this wasn't you kindly contact support.");
 
@@ -0,0 +1,67 @@
+package com.safewatch.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.safewatch.util.tokenReset.TokenUntil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Function;
+
+@Component
+public class VerifiedTokenCache {
+    private final boolean enabled;
+    private final Cache<String, Claims> cache;
+
+    public VerifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled, @Value("${jwt.cache.max-size:10000}") long maxSize, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.verified-tokens");
+    }
+
+    //verifier runs on a miss and throws for bad tokens, so only verified claims are ever stored
+    public Claims get(String token, Function<String, Claims> verifier) {
+        if (!enabled) return verifier.apply(token);
+
+        String key = TokenUntil.sha256(token);
+        Claims claims = cache.getIfPresent(key);
+
+        if (claims != null && claims.getExpiration().getTime() > System.currentTimeMillis()) {
+            return claims;
+        }
+
+        claims = verifier.apply(token);
+        if (claims.getExpiration() != null) {
+            cache.put(key, claims);
+        }
+        return claims;
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return Math.max(0, remainingMs) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.safewatch.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.safewatch.models.RefreshToken;
+import com.safewatch.repositories.RefreshTokenRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+//hot tier for refresh sessions, login and rotation are answered from memory and persisted in batches
+//a token written on one node is only visible to others after the next flush, so run it on a single node or behind sticky routing
+@Component
+@ConditionalOnProperty(name = "app.sessions.write-behind.enabled", havingValue = "true")
+public class WriteBehindRefreshSessionStore implements RefreshSessionStore {
+    private static final int LOCK_STRIPES = 64;
+
+    private final RefreshTokenRepo tokenRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Cache<String, RefreshToken> byHash;
+    private final Cache<Long, UserSessions> byUser;
+    private final Map<String, PendingWrite> pending = new ConcurrentHashMap<>();
+    private final AtomicLong writeSequence = new AtomicLong();
+    private final ReentrantLock[] userLocks = new ReentrantLock[LOCK_STRIPES];
+    private final Logger logger = LoggerFactory.getLogger(WriteBehindRefreshSessionStore.class);
+
+    public WriteBehindRefreshSessionStore(RefreshTokenRepo tokenRepo, TransactionTemplate transactionTemplate, MeterRegistry meterRegistry,
+                                          @Value("${app.sessions.write-behind.batch-size:500}") int batchSize,
+                                          @Value("${app.sessions.max-size:100000}") long maxSize,
+                                          @Value("${app.sessions.idle-expiry:PT30M}") Duration idleExpiry) {
+        this.tokenRepo = tokenRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+
+        this.byHash = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+
+        //a user's active tokens are only reachable through their UserSessions, so they leave byHash with it
+        this.byUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(idleExpiry)
+                .removalListener(this::forget)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, byHash, "refresh.sessions.tokens");
+        CaffeineCacheMetrics.monitor(meterRegistry, byUser, "refresh.sessions.users");
+        Gauge.builder("refresh.sessions.write-behind.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public Optional<RefreshToken> findByTokenHash(String tokenHash) {
+        PendingWrite write = pending.get(tokenHash);
+        if (write != null) return Optional.of(write.token());
+
+        RefreshToken cached = byHash.getIfPresent(tokenHash);
+        if (cached != null) return Optional.of(cached);
+
+        return tokenRepo.findByTokenHash(tokenHash).map(this::canonical);
+    }
+
+    @Override
+    public long countActive(Long userId, Instant now) {
+        return sessions(userId).tokens.stream().filter(t -> isActive(t, now)).count();
+    }
+
+    @Override
+    public List<RefreshToken> findOldestActive(Long userId, Instant now, int limit) {
+        return sessions(userId).tokens.stream()
+                .filter(t -> isActive(t, now))
+                .sorted(Comparator.comparing(RefreshToken::getCreatedAt))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public void save(RefreshToken token) {
+        ReentrantLock lock = lockFor(token.getUserId());
+        lock.lock();
+        try {
+            sessions(token.getUserId()).reindex(token, Instant.now());
+            byHash.put(token.getTokenHash(), token);
+            markDirty(token);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void revoke(List<RefreshToken> tokens, Instant now) {
+        for (RefreshToken token : tokens) {
+            revokeIfActive(token, now);
+        }
+    }
+
+    @Override
+    public boolean revokeIfActive(RefreshToken token, Instant now) {
+        ReentrantLock lock = lockFor(token.getUserId());
+        lock.lock();
+        try {
+            if (token.getRevokedAt() != null) return false;
+            token.setRevokedAt(now);
+
+            UserSessions sessions = byUser.getIfPresent(token.getUserId());
+            if (sessions != null) sessions.tokens.remove(token);
+            markDirty(token);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int revokeSession(Long userId, UUID sessionId, Instant now) {
+        int unflushed = revokeInMemory(userId, t -> sessionId.equals(t.getSessionId()), now);
+        return unflushed + tokenRepo.revokeBySessionId(sessionId, now);
+    }
+
+    @Override
+    public int revokeUser(Long userId, Instant now) {
+        int unflushed = revokeInMemory(userId, t -> true, now);
+        return unflushed + tokenRepo.revokeByUserId(userId, now);
+    }
+
+    @Override
+    public int revokeUserAgent(Long userId, String userAgent, Instant now) {
+        int unflushed = revokeInMemory(userId, t -> userAgent.equals(t.getUserAgent()), now);
+        return unflushed + tokenRepo.revokeByUserIdAndUserAgent(userId, userAgent, now);
+    }
+
+    //every active token held in memory is in its owner's UserSessions, so only that user's handful of tokens is walked
+    //memory is revoked before the UPDATE runs, and queued copies are re-marked so a flush cannot write an older state back
+    //returns the tokens the UPDATE cannot see because they were never inserted
+    private int revokeInMemory(Long userId, Predicate<RefreshToken> match, Instant now) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            UserSessions sessions = sessions(userId);
+            int unflushed = 0;
+            for (RefreshToken token : sessions.tokens) {
+                if (!match.test(token)) continue;
+
+                token.setRevokedAt(now);
+                sessions.tokens.remove(token);
+                if (token.getId() == null) unflushed++;
+                if (pending.containsKey(token.getTokenHash())) markDirty(token);
+            }
+            return unflushed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.write-behind.flush-interval-ms:500}")
+    public void flush() {
+        List<PendingWrite> snapshot = List.copyOf(pending.values());
+        for (int from = 0; from < snapshot.size(); from += batchSize) {
+            if (!write(snapshot.subList(from, Math.min(from + batchSize, snapshot.size())))) return;
+        }
+    }
+
+    //entries leave the pending map only after commit and only if nothing rewrote them meanwhile,
+    //so a cold lookup always finds a token either here or in the table
+    private boolean write(List<PendingWrite> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    tokenRepo.saveAll(batch.stream().map(PendingWrite::token).toList()));
+        } catch (RuntimeException e) {
+            //identity ids handed out inside the rolled back transaction were never committed
+            for (PendingWrite write : batch) {
+                if (write.insert()) write.token().setId(null);
+            }
+            logger.error("Refresh session write-behind failed, {} tokens will be retried", batch.size(), e);
+            return false;
+        }
+
+        for (PendingWrite write : batch) {
+            pending.remove(write.token().getTokenHash(), write);
+        }
+        return true;
+    }
+
+    @PreDestroy
+    void drain() {
+        flush();
+        if (!pending.isEmpty()) {
+            logger.error("Shutting down with {} refresh tokens not persisted", pending.size());
+        }
+    }
+
+    private void markDirty(RefreshToken token) {
+        pending.put(token.getTokenHash(), new PendingWrite(token, token.getId() == null, writeSequence.incrementAndGet()));
+    }
+
+    private ReentrantLock lockFor(Long userId) {
+        return userLocks[Math.floorMod(userId.hashCode(), LOCK_STRIPES)];
+    }
+
+    //the table is read under the user's lock but outside any cache compute, so a slow query only holds up its own stripe
+    private UserSessions sessions(Long userId) {
+        UserSessions sessions = byUser.getIfPresent(userId);
+        if (sessions != null) return sessions;
+
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            sessions = byUser.getIfPresent(userId);
+            if (sessions == null) {
+                sessions = warm(userId);
+                byUser.put(userId, sessions);
+            }
+            return sessions;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //pending writes are read before the table, a token flushed in between is then found in the table
+    //the pending scan only covers what is waiting for the next flush
+    private UserSessions warm(Long userId) {
+        Instant now = Instant.now();
+        Map<String, RefreshToken> tokens = new LinkedHashMap<>();
+
+        for (PendingWrite write : pending.values()) {
+            if (userId.equals(write.token().getUserId())) {
+                tokens.put(write.token().getTokenHash(), write.token());
+            }
+        }
+        for (RefreshToken row : tokenRepo.findActive(userId, now)) {
+            RefreshToken cached = byHash.getIfPresent(row.getTokenHash());
+            tokens.putIfAbsent(row.getTokenHash(), cached != null ? cached : row);
+        }
+
+        UserSessions sessions = new UserSessions();
+        tokens.values().stream().filter(t -> isActive(t, now)).forEach(sessions.tokens::add);
+        return sessions;
+    }
+
+    //keeps one instance per token so a revoke through any path is seen by both indexes
+    //revoked and expired rows are not cached, they only ever answer a reuse check
+    private RefreshToken canonical(RefreshToken row) {
+        ReentrantLock lock = lockFor(row.getUserId());
+        lock.lock();
+        try {
+            RefreshToken active = sessions(row.getUserId()).find(row.getTokenHash());
+            if (active == null) return row;
+
+            byHash.put(active.getTokenHash(), active);
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //runs on Caffeine's executor, the lock keeps it ordered with a canonical() that read the departing sessions
+    private void forget(Long userId, UserSessions sessions, RemovalCause cause) {
+        if (userId == null || sessions == null) return;
+
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            for (RefreshToken token : sessions.tokens) {
+                byHash.asMap().remove(token.getTokenHash(), token);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static boolean isActive(RefreshToken token, Instant now) {
+        return token.getRevokedAt() == null && token.getExpiresAt().isAfter(now);
+    }
+
+    //only active tokens, a user holds a handful of these
+    //written under the user's lock, read without it
+    private static final class UserSessions {
+        private final List<RefreshToken> tokens = new CopyOnWriteArrayList<>();
+
+        private RefreshToken find(String tokenHash) {
+            for (RefreshToken token : tokens) {
+                if (token.getTokenHash().equals(tokenHash)) return token;
+            }
+            return null;
+        }
+
+        private void reindex(RefreshToken token, Instant now) {
+            tokens.removeIf(t -> t.getTokenHash().equals(token.getTokenHash()));
+            if (isActive(token, now)) tokens.add(token);
+        }
+    }
+
+    private record PendingWrite(RefreshToken token, boolean insert, long sequence) {
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, RefreshToken> {
+
+        @Override
+        public long expireAfterCreate(String key, RefreshToken token, long currentTime) {
+            long remainingMs = token.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, remainingMs) * 1_000_000L;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, RefreshToken token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.safewatch.util.reportRelated;
+
+import com.safewatch.models.Status;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record BulkTransitionRequest(@NotEmpty @Size(max = 500) List<@Valid Item> items) {
+
+    //version is the one the moderator saw, a mismatch is reported back as a conflict
+    public record Item(@NotNull Long incidentId,
+                       @NotNull Status target,
+                       @NotNull Long version,
+                       @Size(max = 500) String comment) {
+    }
+}
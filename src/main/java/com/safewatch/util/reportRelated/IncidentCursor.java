@@ -0,0 +1,30 @@
+package com.safewatch.util.reportRelated;
+
+import com.safewatch.exceptions.InvalidIncidentException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+//opaque keyset position for incident feeds, ordered by (reportedAt, incidentId)
+public record IncidentCursor(LocalDateTime reportedAt, Long incidentId) {
+
+    public static final IncidentCursor START = new IncidentCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public String encode() {
+        String raw = reportedAt + "|" + incidentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static IncidentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return START;
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.indexOf('|');
+            return new IncidentCursor(LocalDateTime.parse(raw.substring(0, split)), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidIncidentException("Invalid cursor");
+        }
+    }
+}
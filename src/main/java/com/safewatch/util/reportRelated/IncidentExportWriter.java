@@ -0,0 +1,86 @@
+package com.safewatch.util.reportRelated;
+
+import com.safewatch.DTOs.IncidentRowDTO;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+//writes one row at a time so an export never holds more than the current row
+public class IncidentExportWriter {
+    private static final String CSV_HEADER = "incident_id,reported_at,title,description,location,severity,incident_category,status,version";
+    private static final int FLUSH_EVERY = 500;
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final JsonMapper jsonMapper;
+    private long rows;
+
+    public IncidentExportWriter(ExportFormat format, Writer writer, JsonMapper jsonMapper) {
+        this.format = format;
+        this.writer = writer;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public void begin() {
+        switch (format) {
+            case JSON -> write("[");
+            case CSV -> write(CSV_HEADER + "\n");
+            case NDJSON -> { }
+        }
+    }
+
+    public void write(IncidentRowDTO row) {
+        switch (format) {
+            case JSON -> write((rows == 0 ? "" : ",") + jsonMapper.writeValueAsString(row));
+            case NDJSON -> write(jsonMapper.writeValueAsString(row) + "\n");
+            case CSV -> write(csv(row) + "\n");
+        }
+
+        if (++rows % FLUSH_EVERY == 0) flush();
+    }
+
+    public long end() {
+        if (format == ExportFormat.JSON) write("]");
+        flush();
+        return rows;
+    }
+
+    private String csv(IncidentRowDTO row) {
+        return String.join(",",
+                String.valueOf(row.incidentId()),
+                String.valueOf(row.reportedAt()),
+                escape(row.title()),
+                escape(row.description()),
+                escape(row.location()),
+                String.valueOf(row.severity()),
+                String.valueOf(row.incidentCategory()),
+                String.valueOf(row.status()),
+                String.valueOf(row.version()));
+    }
+
+    private String escape(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private void write(String value) {
+        try {
+            writer.write(value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
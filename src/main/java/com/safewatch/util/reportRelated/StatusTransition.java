@@ -1,24 +1,96 @@
 package com.safewatch.util.reportRelated;
 
+import com.safewatch.models.RoleType;
 import com.safewatch.models.Status;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.StringJoiner;
 
 public final class StatusTransition {
 
-    private static final Map<Status, Set<Status>> allowed = Map.of(
-            Status.PENDING, Set.of(Status.VERIFIED, Status.REJECTED, Status.FLAGGED),
-            Status.VERIFIED, Set.of(Status.PUBLISHED, Status.FLAGGED),
-            Status.FLAGGED, Set.of(Status.VERIFIED, Status.REJECTED),
-            Status.PUBLISHED, Set.of(),
-            Status.REJECTED, Set.of()
-    );
+    //bit t of ALLOWED[f] is set when f -> t is a legal edge, indexed by Status ordinal
+    private static final int[] ALLOWED = new int[Status.values().length];
 
-    public static void assertAllowed(Status from, Status to) {
+    //lowest role that may move a report into the status, roles rank by declaration order
+    private static final RoleType[] REQUIRED_ROLE = new RoleType[Status.values().length];
+
+    static {
+        allow(Status.PENDING, Status.VERIFIED, Status.REJECTED, Status.FLAGGED);
+        allow(Status.VERIFIED, Status.PUBLISHED, Status.FLAGGED);
+        allow(Status.FLAGGED, Status.VERIFIED, Status.REJECTED);
+
+        for (Status status : Status.values()) {
+            REQUIRED_ROLE[status.ordinal()] = RoleType.MODERATOR;
+        }
+        REQUIRED_ROLE[Status.PUBLISHED.ordinal()] = RoleType.ADMIN;
+    }
+
+    private StatusTransition() {
+    }
 
-        if (!allowed.getOrDefault(from, Set.of()).contains(to)) {
+    private static void allow(Status from, Status... targets) {
+        for (Status to : targets) {
+            ALLOWED[from.ordinal()] |= 1 << to.ordinal();
+        }
+    }
+
+    public static boolean isAllowed(Status from, Status to) {
+        return (ALLOWED[from.ordinal()] & (1 << to.ordinal())) != 0;
+    }
+
+    public static boolean isAllowed(Status from, Status to, RoleType role) {
+        return isAllowed(from, to) && role.compareTo(REQUIRED_ROLE[to.ordinal()]) >= 0;
+    }
+
+    public static RoleType requiredRole(Status to) {
+        return REQUIRED_ROLE[to.ordinal()];
+    }
+
+    public static Set<Status> allowedTargets(Status from) {
+        EnumSet<Status> targets = EnumSet.noneOf(Status.class);
+        for (Status to : Status.values()) {
+            if (isAllowed(from, to)) targets.add(to);
+        }
+        return targets;
+    }
+
+    public static Set<Status> allowedTargets(Status from, RoleType role) {
+        EnumSet<Status> targets = EnumSet.noneOf(Status.class);
+        for (Status to : Status.values()) {
+            if (isAllowed(from, to, role)) targets.add(to);
+        }
+        return targets;
+    }
+
+    //the message is only built on the failure path
+    public static void assertAllowed(Status from, Status to) {
+        if (!isAllowed(from, to)) {
             throw new IllegalStateException("Illegal transition : " + from + " -> " + to);
         }
     }
+
+    //whole graph as the role sees it, terminal statuses map to an empty set
+    public static Map<Status, Set<Status>> graph(RoleType role) {
+        Map<Status, Set<Status>> graph = new EnumMap<>(Status.class);
+        for (Status from : Status.values()) {
+            graph.put(from, allowedTargets(from, role));
+        }
+        return graph;
+    }
+
+    //one line per status, e.g. "VERIFIED -> PUBLISHED [ADMIN], FLAGGED [MODERATOR]"
+    public static String describe() {
+        StringJoiner lines = new StringJoiner("\n");
+        for (Status from : Status.values()) {
+            StringJoiner edges = new StringJoiner(", ");
+            for (Status to : allowedTargets(from)) {
+                edges.add(to + " [" + requiredRole(to) + "]");
+            }
+            lines.add(from + " -> " + (edges.length() == 0 ? "(terminal)" : edges.toString()));
+        }
+        return lines.toString();
+    }
 }
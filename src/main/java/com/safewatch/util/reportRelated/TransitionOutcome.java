@@ -0,0 +1,5 @@
+package com.safewatch.util.reportRelated;
+
+public enum TransitionOutcome {
+    APPLIED, CONFLICT, NOT_FOUND, ILLEGAL
+}
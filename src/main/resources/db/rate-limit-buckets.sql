@@ -0,0 +1,29 @@
+-- Shared rate limit bucket state for app.rate-limit.backend=jdbc, applied at startup by RateLimitSchemaConfiguration.
+-- Bucket4j only reads and writes id and state, touched_at is kept by the trigger so idle rows can be purged.
+-- Runs as a single statement batch, every step is idempotent.
+
+create table if not exists rate_limit_buckets (
+    id         varchar(255) primary key,
+    state      bytea,
+    touched_at timestamptz  not null default now()
+);
+
+alter table rate_limit_buckets add column if not exists touched_at timestamptz not null default now();
+
+create index if not exists idx_rate_limit_buckets_touched on rate_limit_buckets (touched_at);
+
+create or replace function rate_limit_buckets_touch() returns trigger
+    language plpgsql as
+$$
+begin
+    new.touched_at := now();
+    return new;
+end
+$$;
+
+-- only real state writes count as activity, so touched_at can still be set by hand
+create or replace trigger rate_limit_buckets_touch
+    before update on rate_limit_buckets
+    for each row
+    when (old.state is distinct from new.state)
+    execute function rate_limit_buckets_touch();
@@ -0,0 +1,83 @@
+-- One-off conversion of the token tables to monthly range partitions on expires_at.
+-- Run during a maintenance window; TokenPartitionManager creates future months and
+-- drops expired ones from then on, and does nothing for tables left unpartitioned.
+--
+-- Postgres requires every unique index on a partitioned table to include the partition
+-- key, so token_hash is unique together with expires_at. Lookups by hash still use the
+-- index through its leading column; the hashes are SHA-256 of random tokens, so global
+-- uniqueness of the hash alone is not something the table needs to enforce.
+-- Keep spring.jpa.hibernate.ddl-auto off validate/update for these tables afterwards,
+-- the entities still describe the unpartitioned shape.
+--
+-- Partitions run from the previous month, which holds rows still inside the one-day copy
+-- window when this runs early in a month, to whichever is later of three months ahead and
+-- the month of the latest expires_at being copied.
+-- There is deliberately no default partition: Postgres refuses to attach a month while the
+-- default holds rows for it, so one stray row would block all later maintenance. An insert
+-- past the last partition fails instead; TokenPartitionManager keeps the horizon beyond
+-- refresh.expiration-ms so that cannot happen to a freshly issued token.
+
+begin;
+
+-- refresh_tokens ----------------------------------------------------------------------
+
+alter table refresh_tokens rename to refresh_tokens_legacy;
+
+create table refresh_tokens (like refresh_tokens_legacy including defaults including identity)
+    partition by range (expires_at);
+
+alter table refresh_tokens add primary key (id, expires_at);
+create unique index ux_refresh_tokens_hash on refresh_tokens (token_hash, expires_at);
+create index idx_refresh_tokens_user on refresh_tokens (user_id, expires_at);
+create index idx_refresh_tokens_session on refresh_tokens (session_id);
+
+do $$
+declare
+    m    date := date_trunc('month', now() at time zone 'utc')::date;
+    last date := greatest(m + interval '3 months',
+                          coalesce(date_trunc('month', (select max(expires_at) from refresh_tokens_legacy) at time zone 'utc'), m))::date;
+begin
+    for i in -1..((extract(year from age(last, m)) * 12 + extract(month from age(last, m)))::int) loop
+        execute format('create table refresh_tokens_p%s partition of refresh_tokens for values from (%L) to (%L)',
+                       to_char(m + make_interval(months => i), 'YYYYMM'),
+                       (m + make_interval(months => i))::date || ' 00:00:00+00',
+                       (m + make_interval(months => i + 1))::date || ' 00:00:00+00');
+    end loop;
+end $$;
+
+insert into refresh_tokens select * from refresh_tokens_legacy where expires_at > now() - interval '1 day';
+select setval(pg_get_serial_sequence('refresh_tokens', 'id'), coalesce((select max(id) from refresh_tokens_legacy), 1));
+
+-- verification_token ------------------------------------------------------------------
+
+alter table verification_token rename to verification_token_legacy;
+
+create table verification_token (like verification_token_legacy including defaults)
+    partition by range (expires_at);
+
+alter table verification_token add primary key (id, expires_at);
+alter table verification_token add foreign key (user_id) references currentuser (user_id);
+create unique index ux_verification_token_hash on verification_token (token_hash, expires_at);
+create index idx_verification_token_user_type on verification_token (user_id, token_type);
+
+do $$
+declare
+    m    date := date_trunc('month', now() at time zone 'utc')::date;
+    last date := greatest(m + interval '3 months',
+                          coalesce(date_trunc('month', (select max(expires_at) from verification_token_legacy) at time zone 'utc'), m))::date;
+begin
+    for i in -1..((extract(year from age(last, m)) * 12 + extract(month from age(last, m)))::int) loop
+        execute format('create table verification_token_p%s partition of verification_token for values from (%L) to (%L)',
+                       to_char(m + make_interval(months => i), 'YYYYMM'),
+                       (m + make_interval(months => i))::date || ' 00:00:00+00',
+                       (m + make_interval(months => i + 1))::date || ' 00:00:00+00');
+    end loop;
+end $$;
+
+insert into verification_token select * from verification_token_legacy where expires_at > now() - interval '1 day';
+
+commit;
+
+-- once the application is verified against the new tables:
+-- drop table refresh_tokens_legacy;
+-- drop table verification_token_legacy;
@@ -0,0 +1,176 @@
+package com.safewatch.repositories;
+
+import com.safewatch.TestcontainersConfiguration;
+import com.safewatch.config.IncidentIndexInitializer;
+import com.safewatch.models.IncidentCategory;
+import com.safewatch.models.Severity;
+import com.safewatch.models.Status;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//runs each IncidentRepository query through the Postgres planner and checks it is served by the intended index
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.safewatch.repositories.SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, IncidentIndexInitializer.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IncidentRepositoryExplainTest {
+
+    private static final LocalDateTime AFTER = LocalDateTime.of(2025, 1, 10, 0, 0);
+    private static final Pageable PAGE = PageRequest.of(0, 20, Sort.by("reportedAt").ascending());
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private IncidentIndexInitializer indexInitializer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    //enough rows that the planner has real statistics to work with
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("""
+                insert into incident (title, description, location, severity, incident_category, status, reported_at, version)
+                select 'title ' || g, 'description', 'location',
+                       (array['LOW', 'MEDIUM', 'HIGH', 'EXTREME'])[g % 4 + 1],
+                       (array['FIRE', 'TRAFFIC', 'DEMONSTRATIONS', 'RALLIES', 'ACCIDENT'])[g % 5 + 1],
+                       (array['PENDING', 'VERIFIED', 'PUBLISHED', 'REJECTED', 'FLAGGED'])[g % 5 + 1],
+                       timestamp '2025-01-01' + g * interval '1 minute',
+                       0
+                  from generate_series(1, 50000) g
+                """);
+        indexInitializer.createIndexes();
+        jdbcTemplate.execute("analyze incident");
+    }
+
+    @Test
+    void projectedListingsUseTheirReportedIndexes() {
+        assertThat(plan(() -> incidentRepository.findAllProjected(PAGE)))
+                .contains("idx_incident_reported");
+        assertThat(plan(() -> incidentRepository.findProjectedByIncidentCategory(IncidentCategory.FIRE, PAGE)))
+                .contains("idx_incident_category_reported");
+        assertThat(plan(() -> incidentRepository.findProjectedByStatus(Status.PENDING, PAGE)))
+                .contains("idx_incident_status_reported");
+        assertThat(plan(() -> incidentRepository.findProjectedBySeverity(Severity.HIGH, PAGE)))
+                .contains("idx_incident_severity_reported");
+    }
+
+    @Test
+    void keysetScrollsSeekOnTheirReportedIndexes() {
+        assertThat(plan(() -> incidentRepository.findAllAfter(AFTER, 100L, Limit.of(21))))
+                .contains("idx_incident_reported");
+        assertThat(plan(() -> incidentRepository.findByIncidentCategoryAfter(IncidentCategory.FIRE, AFTER, 100L, Limit.of(21))))
+                .contains("idx_incident_category_reported");
+        assertThat(plan(() -> incidentRepository.findByStatusAfter(Status.PENDING, AFTER, 100L, Limit.of(21))))
+                .contains("idx_incident_status_reported");
+        assertThat(plan(() -> incidentRepository.findBySeverityAfter(Severity.HIGH, AFTER, 100L, Limit.of(21))))
+                .contains("idx_incident_severity_reported");
+    }
+
+    @Test
+    void claimQueueUsesThePartialIndex() {
+        assertThat(plan(() -> incidentRepository.lockClaimable(1L, AFTER, 10)))
+                .contains("idx_incident_claim_queue");
+    }
+
+    @Test
+    void duplicateModerationQueueIndexIsGone() {
+        Integer count = jdbcTemplate.queryForObject(
+                "select count(*) from pg_indexes where indexname = 'idx_incident_moderation_queue'", Integer.class);
+        assertThat(count).isZero();
+    }
+
+    @Test
+    void lookupsByIdUseThePrimaryKey() {
+        List<Long> ids = List.of(1L, 2L, 3L);
+
+        assertThat(plan(() -> incidentRepository.findWithReviewerByIncidentId(1L))).contains("incident_pkey");
+        assertThat(plan(() -> incidentRepository.findRowsByIds(ids))).contains("incident_pkey");
+        assertThat(plan(() -> incidentRepository.lockAllById(ids))).contains("incident_pkey");
+        assertThat(plan(() -> incidentRepository.claim(ids, null, AFTER))).contains("incident_pkey");
+        assertThat(plan(() -> incidentRepository.release(ids, null))).contains("incident_pkey");
+        assertThat(plan(() -> incidentRepository.applyTransition(ids, Status.VERIFIED, null, AFTER, null)))
+                .contains("incident_pkey");
+    }
+
+    @Test
+    void exportWalksThePrimaryKeyInsteadOfSorting() {
+        String plan = plan(() -> {
+            try (Stream<?> rows = incidentRepository.streamAllForExport()) {
+                rows.findFirst();
+            }
+        });
+
+        assertThat(plan).contains("incident_pkey").doesNotContain("Sort");
+    }
+
+    //runs the call in a rolled back transaction and explains the first statement it sent
+    private String plan(Runnable call) {
+        SqlCapture.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            call.run();
+            status.setRollbackOnly();
+        });
+        return explain(SqlCapture.statements().getFirst());
+    }
+
+    //generic plan so the check does not depend on the bound values, seqscan off so a missing index shows up as a failure
+    private String explain(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = statement.executeQuery("explain (generic_plan) " + numbered(sql))) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                } finally {
+                    statement.execute("reset enable_seqscan");
+                }
+                return plan.toString();
+            }
+        });
+    }
+
+    //JDBC placeholders to the $n form EXPLAIN (GENERIC_PLAN) accepts
+    private static String numbered(String sql) {
+        StringBuilder out = new StringBuilder(sql.length() + 16);
+        int n = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') out.append('$').append(++n);
+            else out.append(c);
+        }
+        return out.toString();
+    }
+}
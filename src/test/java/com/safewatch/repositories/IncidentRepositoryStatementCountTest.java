@@ -0,0 +1,119 @@
+package com.safewatch.repositories;
+
+import com.safewatch.DTOs.ModerationDetailDTO;
+import com.safewatch.TestcontainersConfiguration;
+import com.safewatch.models.RoleType;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//every incident has a reviewer, so a lazy association touched per row would show up as statements growing with the page
+@DataJpaTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class IncidentRepositoryStatementCountTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    @Autowired
+    private IncidentRepository incidentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("insert into userrole (role_name) values ('MODERATOR')");
+        jdbcTemplate.update("""
+                insert into currentuser (email, password, first_name, second_name, enabled, locked, credentials_expired,
+                                         failed_login_attempts, token_version, role_fk)
+                select 'moderator' || g || '@safewatch.test', 'x', 'Mod', 'Erator', true, false, false, 0, 0, r.role_id
+                  from generate_series(1, 10) g, userrole r
+                """);
+        jdbcTemplate.update("""
+                insert into incident (title, description, location, severity, incident_category, status, reported_at, version,
+                                      reviewed_by, reviewed_at, review_comment)
+                select 'title ' || g, 'description', 'location', 'HIGH', 'FIRE', 'VERIFIED',
+                       timestamp '2025-01-01' + g * interval '1 minute', 0,
+                       (select min(user_id) from currentuser) + g % 10, timestamp '2025-02-01', 'ok'
+                  from generate_series(1, 200) g
+                """);
+    }
+
+    @BeforeEach
+    void resetStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void projectedPageCostsTheSameAtAnySize() {
+        long small = statementsFor(() -> incidentRepository.findAllProjected(PageRequest.of(0, 5, Sort.by("reportedAt"))));
+        long large = statementsFor(() -> incidentRepository.findAllProjected(PageRequest.of(0, 50, Sort.by("reportedAt"))));
+
+        //content select plus count
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void keysetPageCostsTheSameAtAnySize() {
+        long small = statementsFor(() -> incidentRepository.findAllAfter(START, 0L, Limit.of(6)));
+        long large = statementsFor(() -> incidentRepository.findAllAfter(START, 0L, Limit.of(51)));
+
+        assertThat(small).isEqualTo(1);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void moderationDetailReadsReviewerFromOneSelect() {
+        Long incidentId = jdbcTemplate.queryForObject("select min(incident_id) from incident", Long.class);
+
+        ModerationDetailDTO[] detail = new ModerationDetailDTO[1];
+        long statements = statementsFor(() ->
+                detail[0] = ModerationDetailDTO.from(incidentRepository.findWithReviewerByIncidentId(incidentId).orElseThrow()));
+
+        assertThat(statements).isEqualTo(1);
+        assertThat(detail[0].reviewerEmail()).endsWith("@safewatch.test");
+        assertThat(detail[0].reviewerRole()).isEqualTo(RoleType.MODERATOR);
+    }
+
+    private long statementsFor(Runnable call) {
+        statistics.clear();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> call.run());
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,113 @@
+package com.safewatch.security;
+
+import com.safewatch.TestcontainersConfiguration;
+import com.safewatch.config.RateLimitSchemaConfiguration;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.boot.jdbc.test.autoconfigure.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//two stores over one database stand in for two application nodes
+@JdbcTest(properties = "app.rate-limit.backend=jdbc")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({TestcontainersConfiguration.class, RateLimitSchemaConfiguration.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class JdbcBucketStoreTest {
+
+    private static final long SYNC_TOKENS = 5;
+    private static final Supplier<BucketConfiguration> TEN_PER_HOUR = () -> BucketConfiguration.builder()
+            .addLimit(limit -> limit.capacity(10).refillGreedy(10, Duration.ofHours(1)))
+            .build();
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void clean() {
+        jdbcTemplate.update("delete from rate_limit_buckets");
+    }
+
+    @Test
+    void nodesShareOneBudget() {
+        Bucket first = store().resolve("login:ip:10.0.0.1", TEN_PER_HOUR);
+        Bucket second = store().resolve("login:ip:10.0.0.1", TEN_PER_HOUR);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(first.tryConsume(1)).isTrue();
+        }
+
+        //the second node only sees what the first has synced, so it may overshoot by at most one sync batch
+        int extra = 0;
+        while (second.tryConsume(1)) {
+            extra++;
+            assertThat(extra).isLessThanOrEqualTo((int) SYNC_TOKENS);
+        }
+    }
+
+    @Test
+    void idleRowsArePurged() {
+        jdbcTemplate.update("insert into rate_limit_buckets (id, state) values ('stale', '\\x00'), ('fresh', '\\x00')");
+        jdbcTemplate.update("update rate_limit_buckets set touched_at = now() - interval '2 hours' where id = 'stale'");
+
+        store().purgeIdle();
+
+        assertThat(jdbcTemplate.queryForList("select id from rate_limit_buckets", String.class)).containsExactly("fresh");
+    }
+
+    @Test
+    void purgeWaitsOutTheLongestPolicyPeriod(@TempDir Path dir) throws IOException {
+        Path policyFile = Files.writeString(dir.resolve("policies.json"), """
+                [{"path": "/api/incident/report", "method": "POST", "keyType": "IP",
+                  "limits": [{"capacity": 10, "period": "PT24H"}]}]
+                """);
+        jdbcTemplate.update("insert into rate_limit_buckets (id, state) values ('daily', '\\x00')");
+        jdbcTemplate.update("update rate_limit_buckets set touched_at = now() - interval '2 hours' where id = 'daily'");
+
+        //row-expiry is an hour, but a half-spent 10/day bucket must survive it
+        store(new RateLimitPolicies(JsonMapper.builder().build(), policyFile.toString())).purgeIdle();
+
+        assertThat(jdbcTemplate.queryForList("select id from rate_limit_buckets", String.class)).containsExactly("daily");
+    }
+
+    @Test
+    void stateWritesRefreshTouchedAt() {
+        jdbcTemplate.update("insert into rate_limit_buckets (id, state, touched_at) values ('active', '\\x00', now() - interval '2 hours')");
+
+        jdbcTemplate.update("update rate_limit_buckets set state = '\\x01' where id = 'active'");
+
+        Boolean recent = jdbcTemplate.queryForObject(
+                "select touched_at > now() - interval '1 minute' from rate_limit_buckets where id = 'active'", Boolean.class);
+        assertThat(recent).isTrue();
+    }
+
+    private JdbcBucketStore store() {
+        return store(new RateLimitPolicies(JsonMapper.builder().build(), ""));
+    }
+
+    private JdbcBucketStore store(RateLimitPolicies policies) {
+        return new JdbcBucketStore(dataSource, new SimpleMeterRegistry(), policies, SYNC_TOKENS, Duration.ofMinutes(1),
+                Duration.ofMinutes(10), 1000, Duration.ofHours(1), 1000);
+    }
+}
@@ -0,0 +1,156 @@
+package com.safewatch.services;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.safewatch.TestcontainersConfiguration;
+import com.safewatch.repositories.MailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//GreenMail stands in for the SMTP relay, a closed port for one that is down
+@DataJpaTest(properties = "spring.jpa.hibernate.ddl-auto=create-drop")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(TestcontainersConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MailDispatcherTest {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration BASE_BACKOFF = Duration.ofMinutes(1);
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private MailOutboxRepository outboxRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final List<MailDispatcher> dispatchers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("delete from mail_outbox");
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatchers.forEach(MailDispatcher::shutdown);
+    }
+
+    @Test
+    void outboxRowFollowsTheCallersTransaction() {
+        MailService mailService = mailService(greenMail.getSmtp().getPort());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            mailService.sendMail("rolled-back@safewatch.test", "Verify", "token");
+            status.setRollbackOnly();
+        });
+        assertThat(outboxRepository.count()).isZero();
+
+        transactionTemplate.executeWithoutResult(status -> mailService.sendMail("committed@safewatch.test", "Verify", "token"));
+
+        //queued only, nothing reaches SMTP until the dispatcher polls
+        assertThat(row()).containsEntry("recipient", "committed@safewatch.test").containsEntry("status", "PENDING");
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    @Test
+    void successfulSendMarksTheRowSent() throws Exception {
+        MailService mailService = mailService(greenMail.getSmtp().getPort());
+        transactionTemplate.executeWithoutResult(status -> mailService.sendMail("reporter@safewatch.test", "Verify", "token"));
+
+        dispatcher(mailService).dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(greenMail.getReceivedMessages()[0].getSubject()).isEqualTo("Verify");
+        Map<String, Object> row = row();
+        assertThat(row).containsEntry("status", "SENT").containsEntry("attempts", 1).containsEntry("body", "");
+        assertThat(row.get("sent_at")).isNotNull();
+    }
+
+    @Test
+    void failingServerBacksOffThenDeadLetters() throws IOException {
+        MailService mailService = mailService(closedPort());
+        transactionTemplate.executeWithoutResult(status -> mailService.sendMail("reporter@safewatch.test", "Verify", "token"));
+        MailDispatcher dispatcher = dispatcher(mailService);
+
+        List<Duration> delays = new ArrayList<>();
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            Instant before = Instant.now();
+            dispatcher.dispatch();
+
+            Map<String, Object> row = row();
+            assertThat(row).containsEntry("status", "PENDING").containsEntry("attempts", attempt);
+            assertThat(row.get("last_error")).isNotNull();
+            delays.add(Duration.between(before, ((Timestamp) row.get("next_attempt_at")).toInstant()));
+
+            //skip the wait rather than sleep through it
+            jdbcTemplate.update("update mail_outbox set next_attempt_at = now()");
+        }
+
+        //base backoff plus up to 20% jitter, doubling each attempt
+        assertThat(delays.get(0)).isBetween(BASE_BACKOFF.minusSeconds(1), BASE_BACKOFF.multipliedBy(6).dividedBy(5).plusSeconds(1));
+        assertThat(delays.get(1)).isGreaterThan(delays.get(0));
+
+        dispatcher.dispatch();
+
+        assertThat(row()).containsEntry("status", "DEAD").containsEntry("attempts", MAX_ATTEMPTS).containsEntry("body", "");
+        assertThat(greenMail.getReceivedMessages()).isEmpty();
+    }
+
+    private MailService mailService(int port) {
+        JavaMailSenderImpl sender = new JavaMailSenderImpl();
+        sender.setHost("localhost");
+        sender.setPort(port);
+        MailService mailService = new MailService(sender, outboxRepository);
+        ReflectionTestUtils.setField(mailService, "mailFrom", "noreply@safewatch.test");
+        return mailService;
+    }
+
+    private MailDispatcher dispatcher(MailService mailService) {
+        MailDispatcher dispatcher = new MailDispatcher(outboxRepository, mailService, transactionTemplate, 1, 50, MAX_ATTEMPTS,
+                BASE_BACKOFF, Duration.ofHours(1), Duration.ofMinutes(1), Duration.ofSeconds(10), false);
+        dispatchers.add(dispatcher);
+        return dispatcher;
+    }
+
+    private Map<String, Object> row() {
+        return jdbcTemplate.queryForMap("select recipient, status, attempts, body, last_error, next_attempt_at, sent_at from mail_outbox");
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}